@@ -0,0 +1,21 @@
+package bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar: standard JMH command line, with the GC profiler
+ * always on so every result also reports the allocation rate (gc.alloc.rate.norm).
+ *
+ * Examples:
+ *   java -jar benchmarks/target/benchmarks.jar                       # everything
+ *   java -jar benchmarks/target/benchmarks.jar Scc -p edges=1000000  # one class, one size
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        new Runner(new OptionsBuilder().parent(cli).addProfiler(GCProfiler.class).build()).run();
+    }
+}
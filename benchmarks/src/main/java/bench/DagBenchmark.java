@@ -0,0 +1,68 @@
+package bench;
+
+import graph.dagsp.DAGShortestPath;
+import graph.scc.TarjanSCC;
+import graph.topo.KahnTopoSort;
+import org.openjdk.jmh.annotations.*;
+import util.CsrGraph;
+import util.Metrics;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Topological sort and DAG DP on the condensation of each benchmark graph. */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class DagBenchmark {
+    @Param({"1000", "100000", "10000000"})
+    public int edges;
+    @Param({"random", "sccChain", "plantedCycles", "powerLaw", "deepChain"})
+    public String shape;
+
+    private CsrGraph dag;
+    private List<Integer> topo;
+    private int source;
+    private DAGShortestPath.Workspace ws;
+    private final Metrics wsMetrics = new Metrics();
+    private final KahnTopoSort kahn = new KahnTopoSort();
+    private final DAGShortestPath dsp = new DAGShortestPath();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        CsrGraph g = Graphs.build(shape, edges, 42);
+        TarjanSCC scc = new TarjanSCC();
+        TarjanSCC.Result r = scc.findSCCs(g, new Metrics());
+        dag = scc.buildCondensation(g, r);
+        topo = kahn.topoOrder(dag, new Metrics()).order;
+        source = r.compOf[0];
+        int[] order = new int[topo.size()];
+        for (int i = 0; i < order.length; i++) order[i] = topo.get(i);
+        ws = new DAGShortestPath.Workspace(order);
+    }
+
+    @Benchmark
+    public KahnTopoSort.Result topoOrder() {
+        return kahn.topoOrder(dag, new Metrics());
+    }
+
+    @Benchmark
+    public DAGShortestPath.DistResult shortestPaths() {
+        return dsp.shortestPaths(dag, source, topo, new Metrics());
+    }
+
+    /** Same DP into a reused Workspace: gc.alloc.rate.norm should be ~0. */
+    @Benchmark
+    public double shortestPathsWorkspace() {
+        dsp.shortestPaths(dag, source, ws, wsMetrics);
+        return ws.dist(topo.get(topo.size() - 1));
+    }
+
+    @Benchmark
+    public DAGShortestPath.DistResult longestPathGlobal() {
+        return dsp.longestPathGlobal(dag, topo, new Metrics());
+    }
+}
@@ -0,0 +1,22 @@
+package bench;
+
+import util.CsrGraph;
+import util.GraphGenerator;
+
+/**
+ * Deterministic benchmark graphs with a given edge count (about 4 edges per vertex),
+ * built by GraphGenerator; shape is a GraphGenerator.Shape id ("random", "sccChain", ...).
+ */
+final class Graphs {
+    private Graphs() {}
+
+    static CsrGraph build(String shape, int edges, long seed) {
+        return build(shape, edges, seed, false);
+    }
+
+    /** With shuffle, vertex ids are a random permutation (no locality left in the ids). */
+    static CsrGraph build(String shape, int edges, long seed, boolean shuffle) {
+        int n = Math.max(16, edges / 4);
+        return new GraphGenerator(GraphGenerator.Shape.byName(shape), n, edges, seed).shuffle(shuffle).toCsr();
+    }
+}
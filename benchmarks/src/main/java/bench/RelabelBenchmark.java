@@ -0,0 +1,98 @@
+package bench;
+
+import graph.dagsp.DAGShortestPath;
+import graph.scc.TarjanSCC;
+import graph.topo.KahnTopoSort;
+import org.openjdk.jmh.annotations.*;
+import util.CsrGraph;
+import util.Metrics;
+import util.Relabeling;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DP and SCC passes before and after util.Relabeling, on graphs with shuffled ids.
+ * order=none keeps Tarjan's component ids (condensation) and the shuffled ids (graph);
+ * topo relabels the graph by the derived order (members of components in topo order).
+ * Cache misses per op: add -prof perfnorm (Linux perf).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class RelabelBenchmark {
+    @Param({"1000000", "10000000"})
+    public int edges;
+    @Param({"random", "plantedCycles", "deepChain"})
+    public String shape;
+    @Param({"none", "topo", "bfs", "rcm"})
+    public String order;
+
+    private CsrGraph graph, dag;
+    private int[] topo;
+    private int source;
+    private DAGShortestPath.Workspace ws;
+    private final Metrics metrics = new Metrics();
+    private final DAGShortestPath dsp = new DAGShortestPath();
+    private final TarjanSCC scc = new TarjanSCC();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        CsrGraph g = Graphs.build(shape, edges, 42, true);
+        TarjanSCC.Result r = scc.findSCCs(g, new Metrics());
+        CsrGraph d = scc.buildCondensation(g, r);
+        List<Integer> kahn = new KahnTopoSort().topoOrder(d, new Metrics()).order;
+        int[] t = new int[kahn.size()];
+        for (int i = 0; i < t.length; i++) t[i] = kahn.get(i);
+        int src = r.compOf[0];
+        if (order.equals("none")) {
+            graph = g;
+            dag = d;
+            topo = t;
+            source = src;
+        } else {
+            Relabeling.Order o = Relabeling.Order.byName(order);
+            Relabeling rd = Relabeling.compute(d, o);
+            dag = rd.apply(d, true);
+            topo = rd.mapIds(t);
+            source = rd.toNew[src];
+            Relabeling rg;
+            if (o == Relabeling.Order.TOPOLOGICAL) {
+                int[] derived = new int[g.n];
+                int k = 0;
+                for (int c : t) for (int i = r.compStart[c]; i < r.compStart[c + 1]; i++) derived[k++] = r.members[i];
+                rg = Relabeling.fromOrder(derived);
+            } else {
+                rg = Relabeling.compute(g, o);
+            }
+            graph = rg.apply(g, true);
+        }
+        ws = new DAGShortestPath.Workspace(topo);
+    }
+
+    @Benchmark
+    public double shortestPaths() {
+        dsp.shortestPaths(dag, source, ws, metrics);
+        return ws.dist(topo[topo.length - 1]);
+    }
+
+    @Benchmark
+    public DAGShortestPath.DistResult longestPathGlobal() {
+        return dsp.longestPathGlobal(dag, topo, metrics);
+    }
+
+    @Benchmark
+    public TarjanSCC.Result tarjan() {
+        return scc.findSCCs(graph, metrics);
+    }
+
+    /** Cost of the relabeling itself (order + apply), paid once per graph. */
+    @Benchmark
+    public CsrGraph relabelCost() {
+        if (order.equals("none")) return dag;
+        return Relabeling.compute(dag, Relabeling.Order.byName(order)).apply(dag, true);
+    }
+}
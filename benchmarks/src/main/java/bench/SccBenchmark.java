@@ -0,0 +1,48 @@
+package bench;
+
+import graph.scc.SccAlgorithm;
+import graph.scc.TarjanSCC;
+import org.openjdk.jmh.annotations.*;
+import util.CsrGraph;
+import util.Metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/** SCC decomposition and condensation building, per engine, size and shape. */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class SccBenchmark {
+    @Param({"1000", "100000", "10000000"})
+    public int edges;
+    @Param({"random", "sccChain", "plantedCycles", "powerLaw", "deepChain"})
+    public String shape;
+    @Param({"tarjan", "parallel"})
+    public String engine;
+
+    private CsrGraph g;
+    private SccAlgorithm scc;
+    private TarjanSCC tarjan;
+    private TarjanSCC.Result result;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        g = Graphs.build(shape, edges, 42);
+        scc = SccAlgorithm.byName(engine);
+        tarjan = new TarjanSCC();
+        result = scc.findSCCs(g, new Metrics());
+    }
+
+    @Benchmark
+    public TarjanSCC.Result findSCCs() {
+        return scc.findSCCs(g, new Metrics());
+    }
+
+    @Benchmark
+    public CsrGraph buildCondensation() {
+        return tarjan.buildCondensation(g, result);
+    }
+}
@@ -0,0 +1,68 @@
+package app;
+
+import graph.scc.TarjanSCC;
+import util.CsrGraph;
+
+import java.util.List;
+
+/** Everything one dataset contributes to the results table and its details file. */
+final class Analysis {
+    // ---------- summary row ----------
+    final String dataset, weightModel;
+    final int n, m, sccCount, vDag, eDag;
+    final double sccMs, topoMs, spMs, lpMs, criticalLen;
+    final long dfsCalls, dfsEdges, pops, pushes, spRelax, lpRelax;
+    final Integer sourceVertex, sourceComp, spExampleTarget;
+    /** Component path to spExampleTarget, or null (NA). */
+    final List<Integer> spExamplePath;
+    /** Critical path over components; empty for an empty DAG. */
+    final List<Integer> criticalPath;
+
+    // ---------- details ----------
+    final TarjanSCC.Result r;
+    final CsrGraph dag;
+    final List<Integer> compTopo;
+    /** Distances from sourceComp by component, or null without a source. */
+    final double[] spDist;
+
+    Analysis(String dataset, String weightModel, int n, int m, int sccCount,
+             double sccMs, long dfsCalls, long dfsEdges, int vDag, int eDag,
+             double topoMs, long pops, long pushes, double spMs, long spRelax,
+             double lpMs, long lpRelax, double criticalLen,
+             Integer sourceVertex, Integer sourceComp, Integer spExampleTarget,
+             List<Integer> spExamplePath, List<Integer> criticalPath,
+             TarjanSCC.Result r, CsrGraph dag, List<Integer> compTopo, double[] spDist) {
+        this.dataset = dataset;
+        this.weightModel = weightModel == null ? "edge" : weightModel;
+        this.n = n;
+        this.m = m;
+        this.sccCount = sccCount;
+        this.sccMs = sccMs;
+        this.dfsCalls = dfsCalls;
+        this.dfsEdges = dfsEdges;
+        this.vDag = vDag;
+        this.eDag = eDag;
+        this.topoMs = topoMs;
+        this.pops = pops;
+        this.pushes = pushes;
+        this.spMs = spMs;
+        this.spRelax = spRelax;
+        this.lpMs = lpMs;
+        this.lpRelax = lpRelax;
+        this.criticalLen = criticalLen;
+        this.sourceVertex = sourceVertex;
+        this.sourceComp = sourceComp;
+        this.spExampleTarget = spExampleTarget;
+        this.spExamplePath = spExamplePath;
+        this.criticalPath = criticalPath;
+        this.r = r;
+        this.dag = dag;
+        this.compTopo = compTopo;
+        this.spDist = spDist;
+    }
+
+    /** Details file name without extension. */
+    String baseName() {
+        return dataset.replaceFirst("\\.json$", "");
+    }
+}
@@ -0,0 +1,94 @@
+package app;
+
+import util.ChannelWriter;
+import util.CsrGraph;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Compact little-endian output; doubles are raw IEEE values (INF stays INF), strings are
+ * int32 length + UTF-8, and NA integers are -1.
+ *
+ * results.bin : magic "SCGR", version, then one record per dataset:
+ *   dataset, weight_model (strings); n, m, SCC_count (int); SCC_ms (double);
+ *   scc_dfs_calls, scc_dfs_edges (long); V_dag, E_dag (int); Topo_ms (double);
+ *   kahn_pops, kahn_pushes (long); SP_ms (double); SP_relax (long); LP_ms (double);
+ *   LP_relax (long); CriticalLen (double); source_vertex, source_comp,
+ *   sp_example_target_comp (int); sp_example_path, critical_path (int32 count + ints,
+ *   count -1 for NA)
+ *
+ * details/NAME_details.bin : magic "SCGD", version, dataset, weight_model, source_vertex,
+ *   source_comp, compCount, compStart[compCount + 1], members[n], V_dag, E_dag,
+ *   dagOffsets[V_dag + 1], dagTargets[E_dag], dagWeights[E_dag] (double),
+ *   topo[V_dag], hasDist (byte), dist[V_dag] (double, only if hasDist).
+ * The derived vertex order is not stored: it is members read component by component in
+ * topo order.
+ */
+final class BinaryResultsSink implements ResultsSink {
+    static final int RESULTS_MAGIC = 0x52474353;   // "SCGR" read little-endian
+    static final int DETAILS_MAGIC = 0x44474353;   // "SCGD"
+    static final int VERSION = 1;
+
+    private final File detailsDir;
+    private final ChannelWriter w;
+
+    BinaryResultsSink(File resultsDir, File detailsDir) throws IOException {
+        this.detailsDir = detailsDir;
+        this.w = ChannelWriter.open(new File(resultsDir, resultsFile()).toPath());
+        w.i32(RESULTS_MAGIC).i32(VERSION);
+    }
+
+    @Override
+    public String resultsFile() {
+        return "results.bin";
+    }
+
+    @Override
+    public void row(Analysis a) throws IOException {
+        w.str(a.dataset).str(a.weightModel).i32(a.n).i32(a.m).i32(a.sccCount)
+         .f64(a.sccMs).i64(a.dfsCalls).i64(a.dfsEdges).i32(a.vDag).i32(a.eDag)
+         .f64(a.topoMs).i64(a.pops).i64(a.pushes).f64(a.spMs).i64(a.spRelax)
+         .f64(a.lpMs).i64(a.lpRelax).f64(a.criticalLen)
+         .i32(orNa(a.sourceVertex)).i32(orNa(a.sourceComp)).i32(orNa(a.spExampleTarget));
+        ints(w, a.spExamplePath);
+        ints(w, a.criticalPath);
+    }
+
+    @Override
+    public void details(Analysis a) throws IOException {
+        try (ChannelWriter d = ChannelWriter.open(new File(detailsDir, a.baseName() + "_details.bin").toPath())) {
+            d.i32(DETAILS_MAGIC).i32(VERSION).str(a.dataset).str(a.weightModel)
+             .i32(orNa(a.sourceVertex)).i32(orNa(a.sourceComp)).i32(a.r.compCount);
+            for (int x : a.r.compStart) d.i32(x);
+            for (int x : a.r.members) d.i32(x);
+            CsrGraph dag = a.dag;
+            d.i32(dag.n).i32(dag.edgeCount());
+            for (int v = 0; v <= dag.n; v++) d.i32(dag.offset(v));
+            for (int e = 0; e < dag.edgeCount(); e++) d.i32(dag.target(e));
+            for (int e = 0; e < dag.edgeCount(); e++) d.f64(dag.weight(e));
+            for (int c : a.compTopo) d.i32(c);
+            d.u8(a.spDist == null ? 0 : 1);
+            if (a.spDist != null) for (double x : a.spDist) d.f64(x);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        w.close();
+    }
+
+    private static int orNa(Integer x) {
+        return x == null ? -1 : x;
+    }
+
+    private static void ints(ChannelWriter w, List<Integer> xs) throws IOException {
+        if (xs == null) {
+            w.i32(-1);
+            return;
+        }
+        w.i32(xs.size());
+        for (int x : xs) w.i32(x);
+    }
+}
@@ -0,0 +1,150 @@
+package app;
+
+import util.ChannelWriter;
+import util.CsrGraph;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/** results.csv plus human-readable details/NAME_details.txt (the report format). */
+final class CsvResultsSink implements ResultsSink {
+    static final String[] COLUMNS = {
+            "dataset", "weight_model", "n", "m", "SCC_count", "SCC_ms", "scc_dfs_calls",
+            "scc_dfs_edges", "V_dag", "E_dag", "Topo_ms", "kahn_pops", "kahn_pushes", "SP_ms",
+            "SP_relax", "LP_ms", "LP_relax", "CriticalLen", "source_vertex", "source_comp",
+            "sp_example_target_comp", "sp_example_path_components", "critical_path_components"};
+
+    private final File detailsDir;
+    private final ChannelWriter w;
+
+    CsvResultsSink(File resultsDir, File detailsDir) throws IOException {
+        this.detailsDir = detailsDir;
+        this.w = ChannelWriter.open(new File(resultsDir, resultsFile()).toPath());
+        w.text(String.join(",", COLUMNS)).newline();
+    }
+
+    @Override
+    public String resultsFile() {
+        return "results.csv";
+    }
+
+    @Override
+    public void row(Analysis a) throws IOException {
+        field(w, a.dataset).ch(',');
+        field(w, a.weightModel).ch(',');
+        w.num(a.n).ch(',').num(a.m).ch(',').num(a.sccCount).ch(',');
+        fmt(w, a.sccMs).ch(',').num(a.dfsCalls).ch(',').num(a.dfsEdges).ch(',');
+        w.num(a.vDag).ch(',').num(a.eDag).ch(',');
+        fmt(w, a.topoMs).ch(',').num(a.pops).ch(',').num(a.pushes).ch(',');
+        fmt(w, a.spMs).ch(',').num(a.spRelax).ch(',');
+        fmt(w, a.lpMs).ch(',').num(a.lpRelax).ch(',');
+        fmt(w, a.criticalLen).ch(',');
+        numOrNa(w, a.sourceVertex).ch(',');
+        numOrNa(w, a.sourceComp).ch(',');
+        numOrNa(w, a.spExampleTarget).ch(',');
+        if (a.spExamplePath == null) w.text("NA");
+        else path(w, a.spExamplePath);
+        w.ch(',');
+        if (a.criticalPath.isEmpty()) w.text("NA");
+        else path(w, a.criticalPath);
+        w.newline();
+    }
+
+    @Override
+    public void details(Analysis a) throws IOException {
+        try (ChannelWriter d = ChannelWriter.open(new File(detailsDir, a.baseName() + "_details.txt").toPath())) {
+            d.text("dataset: ").text(a.dataset).newline();
+            d.text("weight_model: ").text(a.weightModel).newline();
+            d.text("source_vertex: ");
+            numOrNa(d, a.sourceVertex).newline();
+            d.text("source_comp: ");
+            numOrNa(d, a.sourceComp).newline();
+            d.newline();
+
+            // SCC components
+            d.text("SCC components (index: size | nodes):").newline();
+            int[] members = a.r.members, start = a.r.compStart;
+            for (int c = 0; c < a.r.compCount; c++) {
+                d.text("  ").num(c).text(": ").num(start[c + 1] - start[c]).text(" | [");
+                for (int i = start[c]; i < start[c + 1]; i++) {
+                    if (i > start[c]) d.text(", ");
+                    d.num(members[i]);
+                }
+                d.ch(']').newline();
+            }
+            d.newline();
+
+            // Condensation DAG edges
+            CsrGraph dag = a.dag;
+            d.text("Condensation DAG: V_dag=").num(dag.n).text(", E_dag=").num(dag.edgeCount()).newline();
+            d.text("dag_edges (u -> v, w):").newline();
+            for (int u = 0; u < dag.n; u++) {
+                for (int e = dag.offset(u), end = dag.offset(u + 1); e < end; e++) {
+                    d.text("  ").num(u).text(" -> ").num(dag.target(e)).text(" , w=");
+                    fmt(d, dag.weight(e)).newline();
+                }
+            }
+            d.newline();
+
+            // Orders (List.toString layout)
+            d.text("topo_order_components:").newline().text("  [");
+            for (int i = 0; i < a.compTopo.size(); i++) {
+                if (i > 0) d.text(", ");
+                d.num(a.compTopo.get(i));
+            }
+            d.ch(']').newline();
+            d.text("derived_order_vertices:").newline().text("  [");
+            boolean first = true;
+            for (int c : a.compTopo) {
+                for (int i = start[c]; i < start[c + 1]; i++, first = false) {
+                    if (!first) d.text(", ");
+                    d.num(members[i]);
+                }
+            }
+            d.ch(']').newline();
+            d.newline();
+
+            // Distances vector
+            if (a.spDist != null) {
+                d.text("dist_from_source (by component index):").newline().text("  [");
+                for (int i = 0; i < a.spDist.length; i++) {
+                    if (i > 0) d.text(", ");
+                    fmt(d, a.spDist[i]);
+                }
+                d.ch(']').newline();
+            } else {
+                d.text("dist_from_source: NA (no source in dataset)").newline();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        w.close();
+    }
+
+    /** %.3f, or INF when not finite. */
+    static ChannelWriter fmt(ChannelWriter w, double x) throws IOException {
+        return Double.isFinite(x) ? w.fixed(x, 3) : w.text("INF");
+    }
+
+    private static ChannelWriter numOrNa(ChannelWriter w, Integer x) throws IOException {
+        return x == null ? w.text("NA") : w.num(x);
+    }
+
+    private static ChannelWriter path(ChannelWriter w, List<Integer> path) throws IOException {
+        for (int i = 0; i < path.size(); i++) {
+            if (i > 0) w.text("->");
+            w.num(path.get(i));
+        }
+        return w;
+    }
+
+    /** Quoted when it contains a comma, quote or newline. */
+    private static ChannelWriter field(ChannelWriter w, String s) throws IOException {
+        boolean quote = s.indexOf(',') >= 0 || s.indexOf('"') >= 0 || s.indexOf('\n') >= 0;
+        String t = s.replace("\"", "\"\"");
+        return quote ? w.ch('"').text(t).ch('"') : w.text(t);
+    }
+}
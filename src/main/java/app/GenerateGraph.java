@@ -0,0 +1,54 @@
+package app;
+
+import util.GraphGenerator;
+
+import java.nio.file.Path;
+
+/**
+ * Writes a synthetic dataset (GraphGenerator) in the JSON format read by GraphLoader.
+ *
+ * Usage: GenerateGraph <shape> <n> <m> <out.json | out.json.gz> [options]
+ *   shape: random | sccChain | plantedCycles | powerLaw | deepChain
+ *   --seed S             random seed (default 42)
+ *   --component-size K   cycle size / largest planted cycle (default 8)
+ *   --cycles C           planted cycles for plantedCycles (default n / 64)
+ *   --max-weight W       weights are drawn from 1..W (default 100)
+ *   --shuffle            relabel vertices by a seeded permutation
+ * Keep generated files out of data/, which Main processes in full.
+ */
+public class GenerateGraph {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 4) {
+            System.err.println("Usage: GenerateGraph <shape> <n> <m> <out.json[.gz]> [--seed S] "
+                    + "[--component-size K] [--cycles C] [--max-weight W] [--shuffle]");
+            System.exit(2);
+        }
+        GraphGenerator.Shape shape = GraphGenerator.Shape.byName(args[0]);
+        int n = Integer.parseInt(args[1]);
+        long m = Long.parseLong(args[2]);
+        Path out = Path.of(args[3]);
+        long seed = 42;
+        int k = -1, cycles = -1, maxWeight = -1;
+        boolean shuffle = false;
+        for (int i = 4; i < args.length; i++) {
+            switch (args[i]) {
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                case "--component-size": k = Integer.parseInt(args[++i]); break;
+                case "--cycles": cycles = Integer.parseInt(args[++i]); break;
+                case "--max-weight": maxWeight = Integer.parseInt(args[++i]); break;
+                case "--shuffle": shuffle = true; break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        GraphGenerator gen = new GraphGenerator(shape, n, m, seed).shuffle(shuffle);
+        if (k != -1) gen.componentSize(k);
+        if (cycles != -1) gen.plantedCycles(cycles);
+        if (maxWeight != -1) gen.maxWeight(maxWeight);
+
+        long t0 = System.nanoTime();
+        gen.writeJson(out);
+        System.out.printf("%s: %s n=%d m=%d seed=%d (%.1f ms)%n", out, shape.id, n, m, seed,
+                (System.nanoTime() - t0) / 1e6);
+    }
+}
@@ -0,0 +1,188 @@
+package app;
+
+import util.ChannelWriter;
+import util.CsrGraph;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * results.jsonl (one object per dataset, keys as the CSV columns) plus
+ * details/NAME_details.jsonl: a header object, then one line per component, one per DAG
+ * edge, and one each for the orders and the distance vector. Doubles use %.3f; NA and
+ * INF become null.
+ */
+final class JsonLinesResultsSink implements ResultsSink {
+    private final File detailsDir;
+    private final ChannelWriter w;
+
+    JsonLinesResultsSink(File resultsDir, File detailsDir) throws IOException {
+        this.detailsDir = detailsDir;
+        this.w = ChannelWriter.open(new File(resultsDir, resultsFile()).toPath());
+    }
+
+    @Override
+    public String resultsFile() {
+        return "results.jsonl";
+    }
+
+    @Override
+    public void row(Analysis a) throws IOException {
+        String[] k = CsvResultsSink.COLUMNS;
+        w.ch('{');
+        key(w, k[0], true);
+        str(w, a.dataset);
+        key(w, k[1], false);
+        str(w, a.weightModel);
+        key(w, k[2], false);
+        w.num(a.n);
+        key(w, k[3], false);
+        w.num(a.m);
+        key(w, k[4], false);
+        w.num(a.sccCount);
+        key(w, k[5], false);
+        num(w, a.sccMs);
+        key(w, k[6], false);
+        w.num(a.dfsCalls);
+        key(w, k[7], false);
+        w.num(a.dfsEdges);
+        key(w, k[8], false);
+        w.num(a.vDag);
+        key(w, k[9], false);
+        w.num(a.eDag);
+        key(w, k[10], false);
+        num(w, a.topoMs);
+        key(w, k[11], false);
+        w.num(a.pops);
+        key(w, k[12], false);
+        w.num(a.pushes);
+        key(w, k[13], false);
+        num(w, a.spMs);
+        key(w, k[14], false);
+        w.num(a.spRelax);
+        key(w, k[15], false);
+        num(w, a.lpMs);
+        key(w, k[16], false);
+        w.num(a.lpRelax);
+        key(w, k[17], false);
+        num(w, a.criticalLen);
+        key(w, k[18], false);
+        numOrNull(w, a.sourceVertex);
+        key(w, k[19], false);
+        numOrNull(w, a.sourceComp);
+        key(w, k[20], false);
+        numOrNull(w, a.spExampleTarget);
+        key(w, k[21], false);
+        if (a.spExamplePath == null) w.text("null");
+        else list(w, a.spExamplePath);
+        key(w, k[22], false);
+        list(w, a.criticalPath);
+        w.ch('}').newline();
+    }
+
+    @Override
+    public void details(Analysis a) throws IOException {
+        try (ChannelWriter d = ChannelWriter.open(new File(detailsDir, a.baseName() + "_details.jsonl").toPath())) {
+            CsrGraph dag = a.dag;
+            d.ch('{');
+            key(d, "dataset", true);
+            str(d, a.dataset);
+            key(d, "weight_model", false);
+            str(d, a.weightModel);
+            key(d, "source_vertex", false);
+            numOrNull(d, a.sourceVertex);
+            key(d, "source_comp", false);
+            numOrNull(d, a.sourceComp);
+            key(d, "scc_count", false);
+            d.num(a.r.compCount);
+            key(d, "V_dag", false);
+            d.num(dag.n);
+            key(d, "E_dag", false);
+            d.num(dag.edgeCount());
+            d.ch('}').newline();
+
+            int[] members = a.r.members, start = a.r.compStart;
+            for (int c = 0; c < a.r.compCount; c++) {
+                d.text("{\"comp\":").num(c).text(",\"nodes\":[");
+                for (int i = start[c]; i < start[c + 1]; i++) {
+                    if (i > start[c]) d.ch(',');
+                    d.num(members[i]);
+                }
+                d.text("]}").newline();
+            }
+            for (int u = 0; u < dag.n; u++) {
+                for (int e = dag.offset(u), end = dag.offset(u + 1); e < end; e++) {
+                    d.text("{\"u\":").num(u).text(",\"v\":").num(dag.target(e)).text(",\"w\":");
+                    num(d, dag.weight(e)).text("}").newline();
+                }
+            }
+            d.text("{\"topo_order_components\":");
+            list(d, a.compTopo).ch('}').newline();
+            d.text("{\"derived_order_vertices\":[");
+            boolean first = true;
+            for (int c : a.compTopo) {
+                for (int i = start[c]; i < start[c + 1]; i++, first = false) {
+                    if (!first) d.ch(',');
+                    d.num(members[i]);
+                }
+            }
+            d.text("]}").newline();
+            d.text("{\"dist_from_source\":");
+            if (a.spDist == null) {
+                d.text("null");
+            } else {
+                d.ch('[');
+                for (int i = 0; i < a.spDist.length; i++) {
+                    if (i > 0) d.ch(',');
+                    num(d, a.spDist[i]);
+                }
+                d.ch(']');
+            }
+            d.ch('}').newline();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        w.close();
+    }
+
+    private static void key(ChannelWriter w, String k, boolean first) throws IOException {
+        if (!first) w.ch(',');
+        w.ch('"').text(k).text("\":");
+    }
+
+    private static ChannelWriter num(ChannelWriter w, double x) throws IOException {
+        return Double.isFinite(x) ? w.fixed(x, 3) : w.text("null");
+    }
+
+    private static ChannelWriter numOrNull(ChannelWriter w, Integer x) throws IOException {
+        return x == null ? w.text("null") : w.num(x);
+    }
+
+    private static ChannelWriter list(ChannelWriter w, List<Integer> xs) throws IOException {
+        w.ch('[');
+        for (int i = 0; i < xs.size(); i++) {
+            if (i > 0) w.ch(',');
+            w.num(xs.get(i));
+        }
+        return w.ch(']');
+    }
+
+    private static void str(ChannelWriter w, String s) throws IOException {
+        w.ch('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') w.ch('\\').ch(c);
+            else if (c < 0x20) w.text(String.format("\\u%04x", (int) c));
+            else if (c < 0x80) w.ch(c);
+            else {
+                int cp = s.codePointAt(i);
+                w.text(new String(Character.toChars(cp)));
+                i += Character.charCount(cp) - 1;
+            }
+        }
+        w.ch('"');
+    }
+}
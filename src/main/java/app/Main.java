@@ -1,26 +1,42 @@
 package app;
 
 import graph.dagsp.DAGShortestPath;
+import graph.scc.ParallelEdgePolicy;
+import graph.scc.SccAlgorithm;
 import graph.scc.TarjanSCC;
 import graph.topo.KahnTopoSort;
-import util.Edge;
-import util.Graph;
+import util.BinaryGraphFormat;
+import util.CsrGraph;
 import util.GraphLoader;
+import util.GraphView;
 import util.Metrics;
 
 import java.io.File;
-import java.io.FileWriter;
-import java.io.PrintWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class Main {
 
     // Console debug (does not affect CSV / details files)
     private static final boolean PRINT_CONSOLE = false;
 
+    private static final SccAlgorithm SCC_ENGINE =
+            SccAlgorithm.byName(System.getProperty("scc.engine", "tarjan"));
+    // -Dpipeline=fused: Tarjan's component order replaces Kahn (always Tarjan; Topo_ms = 0)
+    private static final boolean FUSED = "fused".equals(System.getProperty("pipeline", "staged"));
+    // -Dresults.format=csv|jsonl|binary (see ResultsSink)
+    private static final String FORMAT = System.getProperty("results.format", "csv");
+
     public static void main(String[] args) throws Exception {
         File dataDir = new File("data");
         if (!dataDir.exists()) {
@@ -41,40 +57,137 @@ public class Main {
         File detailsDir = new File(resultsDir, "details");
         detailsDir.mkdirs();
 
-        try (PrintWriter pw = new PrintWriter(new FileWriter(new File(resultsDir, "results.csv")))) {
-            writeCsvHeader(pw);
-            for (String f : files) {
-                processDatasetToCsvAndDetails(dataDir, f, pw, detailsDir);
+        // -Dbatch.parallelism=N analyzes up to N datasets concurrently; output is identical.
+        int parallelism = Integer.getInteger("batch.parallelism", 1);
+        String resultsFile;
+        try (ResultsSink sink = ResultsSink.open(FORMAT, resultsDir, detailsDir)) {
+            resultsFile = sink.resultsFile();
+            if (parallelism <= 1) {
+                for (String f : files) {
+                    Analysis a = analyze(load(dataDir, f), f);
+                    sink.row(a);
+                    sink.details(a);
+                }
+            } else {
+                runPipelined(dataDir, files, sink, parallelism);
             }
         }
 
-        System.out.println("Saved table to results/results.csv");
-        System.out.println("Per-dataset details in results/details/*.txt");
+        System.out.println("Saved table to results/" + resultsFile);
+        System.out.println("Per-dataset details in results/details/");
+    }
+
+    /**
+     * Loads datasets on an I/O pool and analyzes them on a compute pool, at most
+     * 2 * parallelism in flight. Rows are written by this thread strictly in file order,
+     * and details files are written asynchronously on the I/O pool.
+     * (A fixed platform pool stands in for virtual threads, which need Java 21.)
+     */
+    private static void runPipelined(File dataDir, String[] files, ResultsSink sink,
+                                     int parallelism) throws Exception {
+        ExecutorService io = Executors.newFixedThreadPool(Math.max(2, parallelism));
+        ExecutorService compute = Executors.newFixedThreadPool(parallelism);
+        ArrayDeque<CompletableFuture<Analysis>> inFlight = new ArrayDeque<>();
+        List<CompletableFuture<Void>> detailWrites = new ArrayList<>();
+        try {
+            int next = 0;
+            while (next < files.length || !inFlight.isEmpty()) {
+                while (next < files.length && inFlight.size() < 2 * parallelism) {
+                    String f = files[next++];
+                    inFlight.add(CompletableFuture
+                            .supplyAsync(() -> unchecked(() -> load(dataDir, f)), io)
+                            .thenApplyAsync(in -> analyze(in, f), compute));
+                }
+                Analysis a = join(inFlight.poll());
+                sink.row(a);
+                detailWrites.add(CompletableFuture.runAsync(
+                        () -> unchecked(() -> { sink.details(a); return null; }), io));
+            }
+            join(CompletableFuture.allOf(detailWrites.toArray(new CompletableFuture<?>[0])));
+        } finally {
+            io.shutdown();
+            compute.shutdown();
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> f) throws Exception {
+        try {
+            return f.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() instanceof UncheckedIOException ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof Exception) throw (Exception) cause;
+            throw e;
+        }
+    }
+
+    private static <T> T unchecked(Callable<T> c) {
+        try {
+            return c.call();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /** A dataset plus the condensation cached in its .scg file (null when there is none). */
+    private static final class Loaded {
+        final GraphLoader.Dataset ds;
+        final BinaryGraphFormat.Mapped cache;
+        Loaded(GraphLoader.Dataset ds, BinaryGraphFormat.Mapped cache) {
+            this.ds = ds;
+            this.cache = cache;
+        }
     }
 
-    private static void processDatasetToCsvAndDetails(File dataDir,
-                                                      String fileName,
-                                                      PrintWriter pw,
-                                                      File detailsDir) throws Exception {
+    // Uses a converted <name>.scg next to the JSON if it was converted from the JSON as it is
+    // now (size and mtime recorded by ConvertToBinary); otherwise parses the JSON.
+    private static Loaded load(File dataDir, String fileName) throws IOException {
+        File json = new File(dataDir, fileName);
+        File bin = new File(dataDir, fileName.replaceFirst("\\.json$", "") + BinaryGraphFormat.EXTENSION);
+        if (bin.isFile() && BinaryGraphFormat.isBinary(bin.toPath())) {
+            BinaryGraphFormat.Mapped mapped = BinaryGraphFormat.open(bin.toPath());
+            if (mapped.isConvertedFrom(json.toPath())) {
+                return new Loaded(mapped.dataset, mapped.hasCondensation() ? mapped : null);
+            }
+        }
+        return new Loaded(GraphLoader.loadDataset(json.getPath()), null);
+    }
+
+    private static Analysis analyze(Loaded in, String fileName) {
         if (PRINT_CONSOLE) System.out.println("\n--- Dataset: " + fileName + " ---");
 
-        GraphLoader.Dataset ds = GraphLoader.loadDataset(new File(dataDir, fileName).getPath());
-        Graph g = ds.graph;
+        GraphLoader.Dataset ds = in.ds;
+        GraphView g = ds.graph;
 
-        // ---------- SCC (Tarjan) ----------
+        // ---------- SCC (Tarjan by default; -Dscc.engine=parallel for forward-backward) ----------
         TarjanSCC scc = new TarjanSCC();
         Metrics mScc = new Metrics();
-        TarjanSCC.Result r = scc.findSCCs(g, mScc);
-
-        // ---------- Condensation DAG + Topological order (Kahn) ----------
-        Graph dag = scc.buildCondensation(g, r);
-        int Vdag = dag.n;
-        int Edag = 0;
-        for (int u = 0; u < dag.n; u++) Edag += dag.adj.get(u).size();
-
-        KahnTopoSort topo = new KahnTopoSort();
         Metrics mTopo = new Metrics();
-        KahnTopoSort.Result tr = topo.topoOrder(dag, mTopo);
+        TarjanSCC.Result r;
+        CsrGraph dag;
+        List<Integer> compTopo;
+        if (in.cache != null) {
+            // condensation cached by ConvertToBinary --condensation: no SCC run (SCC_ms = 0),
+            // members listed in ascending order instead of Tarjan's pop order
+            r = TarjanSCC.Result.fromCompOf(in.cache.copyCompOf(), in.cache.condensation.vertexCount());
+            dag = CsrGraph.copyOf(in.cache.condensation, true);
+            compTopo = new KahnTopoSort().topoOrder(dag, mTopo).order;
+        } else if (FUSED) {
+            TarjanSCC.Pipeline p = scc.findSCCsWithOrder(g, true, ParallelEdgePolicy.FIRST, mScc);
+            r = p.scc;
+            dag = p.condensation;
+            compTopo = new ArrayList<>(p.topo.length);
+            for (int c : p.topo) compTopo.add(c);
+        } else {
+            r = SCC_ENGINE.findSCCs(g, mScc);
+
+            // ---------- Condensation DAG + Topological order (Kahn) ----------
+            dag = scc.buildCondensation(g, r);
+            compTopo = new KahnTopoSort().topoOrder(dag, mTopo).order;
+        }
+        int Vdag = dag.n;
+        int Edag = dag.edgeCount();
 
         // ---------- DAG shortest paths (single source) ----------
         DAGShortestPath dsp = new DAGShortestPath();
@@ -83,7 +196,7 @@ public class Main {
         Integer sourceVertex = ds.source;          // исходная вершина (может быть null)
         Integer sourceComp = null;                 // компонент-источник (если есть source)
         Integer spExampleTargetComp = null;
-        String spExamplePath = "NA";
+        List<Integer> spExamplePath = null;
         double[] spDist = null;                    // для деталей: вектор дистанций
 
         if (ds.source != null) {
@@ -91,8 +204,8 @@ public class Main {
 
             Metrics mSp = new Metrics();
             DAGShortestPath.DistResult sp =
-                    dsp.shortestPaths(dag, sourceComp, tr.order, mSp);
-            spMs = mSp.timeMs();
+                    dsp.shortestPaths(dag, sourceComp, compTopo, mSp);
+            spMs = mSp.timeMs("dagsp");
             spRelax = mSp.get("dagsp_relaxations");
             spDist = sp.dist;
 
@@ -100,7 +213,7 @@ public class Main {
             boolean[] isSink = new boolean[dag.n];
             Arrays.fill(isSink, true);
             for (int u = 0; u < dag.n; u++) {
-                for (Edge e : dag.adj.get(u)) isSink[u] = false;
+                if (dag.outDegree(u) > 0) isSink[u] = false;
             }
             double best = Double.POSITIVE_INFINITY;
             int bestT = -1;
@@ -117,8 +230,7 @@ public class Main {
             }
             if (bestT >= 0) {
                 spExampleTargetComp = bestT;
-                List<Integer> path = DAGShortestPath.reconstructPath(sourceComp, bestT, sp.parent);
-                spExamplePath = joinPath(path);
+                spExamplePath = DAGShortestPath.reconstructPath(sourceComp, bestT, sp.parent);
             }
         } else if (PRINT_CONSOLE) {
             System.out.println("No source in dataset; skipping shortest paths.");
@@ -127,8 +239,8 @@ public class Main {
         // ---------- DAG longest (critical) path ----------
         Metrics mLp = new Metrics();
         DAGShortestPath.DistResult lp =
-                dsp.longestPathGlobal(dag, tr.order, mLp);
-        double lpMs = mLp.timeMs();
+                dsp.longestPathGlobal(dag, compTopo, mLp);
+        double lpMs = mLp.timeMs("daglp");
         long lpRelax = mLp.get("daglp_relaxations");
         List<Integer> critPath = DAGShortestPath.reconstructPathToMax(lp.dist, lp.parent);
         double critLen = Double.NEGATIVE_INFINITY;
@@ -138,184 +250,15 @@ public class Main {
             System.out.println("Critical length=" + fmt(critLen) + " (ms=" + fmt(lpMs) + ", relax=" + lpRelax + ")");
         }
 
-        // ---------- CSV row (only the required summary fields) ----------
-        writeCsvRow(
-                pw,
-                fileName,
-                ds.weightModel,
-                g.n, g.edges.size(),
-                r.compCount,
-                mScc.timeMs(), mScc.get("scc_dfs_calls"), mScc.get("scc_dfs_edges"),
+        return new Analysis(fileName, ds.weightModel,
+                g.vertexCount(), g.edgeCount(), r.compCount,
+                mScc.timeMs("scc"), mScc.get("scc_dfs_calls"), mScc.get("scc_dfs_edges"),
                 Vdag, Edag,
-                mTopo.timeMs(), mTopo.get("kahn_pops"), mTopo.get("kahn_pushes"),
+                mTopo.timeMs("topo"), mTopo.get("kahn_pops"), mTopo.get("kahn_pushes"),
                 spMs, spRelax,
                 lpMs, lpRelax, critLen,
-                sourceVertex == null ? "NA" : String.valueOf(sourceVertex),
-                sourceComp == null ? "NA" : String.valueOf(sourceComp),
-                spExampleTargetComp == null ? "NA" : String.valueOf(spExampleTargetComp),
-                spExamplePath,
-                critPath.isEmpty() ? "NA" : joinPath(critPath)
-        );
-
-        // ---------- Details file (for the report: SCC list, DAG edges, orders, distances) ----------
-        writeDetails(detailsDir, fileName, ds.weightModel, sourceVertex, sourceComp,
-                r, dag, tr.order, deriveOrder(r, tr.order), spDist);
-    }
-
-    private static List<Integer> deriveOrder(TarjanSCC.Result r, List<Integer> compTopo) {
-        List<Integer> derived = new ArrayList<>();
-        for (int c : compTopo) derived.addAll(r.components.get(c));
-        return derived;
-    }
-
-    private static void writeDetails(File detailsDir,
-                                     String dataset,
-                                     String weightModel,
-                                     Integer sourceVertex,
-                                     Integer sourceComp,
-                                     TarjanSCC.Result r,
-                                     Graph dag,
-                                     List<Integer> compTopo,
-                                     List<Integer> derived,
-                                     double[] spDist) throws Exception {
-        String base = dataset.replaceFirst("\\.json$", "");
-        File out = new File(detailsDir, base + "_details.txt");
-        try (PrintWriter w = new PrintWriter(new FileWriter(out))) {
-            w.println("dataset: " + dataset);
-            w.println("weight_model: " + (weightModel == null ? "edge" : weightModel));
-            w.println("source_vertex: " + (sourceVertex == null ? "NA" : sourceVertex));
-            w.println("source_comp: " + (sourceComp == null ? "NA" : sourceComp));
-            w.println();
-
-            // SCC components
-            w.println("SCC components (index: size | nodes):");
-            for (int i = 0; i < r.components.size(); i++) {
-                List<Integer> comp = r.components.get(i);
-                w.println("  " + i + ": " + comp.size() + " | " + comp);
-            }
-            w.println();
-
-            // Condensation DAG edges
-            int Vdag = dag.n; int Edag = 0; for (int u = 0; u < dag.n; u++) Edag += dag.adj.get(u).size();
-            w.println("Condensation DAG: V_dag=" + Vdag + ", E_dag=" + Edag);
-            w.println("dag_edges (u -> v, w):");
-            for (int u = 0; u < dag.n; u++) {
-                for (Edge e : dag.adj.get(u)) {
-                    w.println("  " + u + " -> " + e.to + " , w=" + fmt(e.weight));
-                }
-            }
-            w.println();
-
-            // Orders
-            w.println("topo_order_components:");
-            w.println("  " + compTopo);
-            w.println("derived_order_vertices:");
-            w.println("  " + derived);
-            w.println();
-
-            // Distances vector
-            if (spDist != null) {
-                w.println("dist_from_source (by component index):");
-                StringBuilder sb = new StringBuilder("  [");
-                for (int i = 0; i < spDist.length; i++) {
-                    if (i > 0) sb.append(", ");
-                    sb.append(Double.isFinite(spDist[i]) ? fmt(spDist[i]) : "INF");
-                }
-                sb.append("]");
-                w.println(sb.toString());
-            } else {
-                w.println("dist_from_source: NA (no source in dataset)");
-            }
-        }
-    }
-
-    private static void writeCsvHeader(PrintWriter pw) {
-        pw.println(String.join(",",
-                "dataset",
-                "weight_model",
-                "n",
-                "m",
-                "SCC_count",
-                "SCC_ms",
-                "scc_dfs_calls",
-                "scc_dfs_edges",
-                "V_dag",
-                "E_dag",
-                "Topo_ms",
-                "kahn_pops",
-                "kahn_pushes",
-                "SP_ms",
-                "SP_relax",
-                "LP_ms",
-                "LP_relax",
-                "CriticalLen",
-                "source_vertex",
-                "source_comp",
-                "sp_example_target_comp",
-                "sp_example_path_components",
-                "critical_path_components"));
-        pw.flush();
-    }
-
-    private static void writeCsvRow(PrintWriter pw,
-                                    String dataset,
-                                    String weightModel,
-                                    int n, int m,
-                                    int sccCount,
-                                    double sccMs, long dfsCalls, long dfsEdges,
-                                    int vDag, int eDag,
-                                    double topoMs, long pops, long pushes,
-                                    double spMs, long spRelax,
-                                    double lpMs, long lpRelax, double criticalLen,
-                                    String sourceVertex,
-                                    String sourceComp,
-                                    String spExampleTarget,
-                                    String spExamplePath,
-                                    String criticalPath) {
-        String row = String.join(",",
-                csv(dataset),
-                csv(weightModel == null ? "edge" : weightModel),
-                String.valueOf(n),
-                String.valueOf(m),
-                String.valueOf(sccCount),
-                fmt(sccMs),
-                String.valueOf(dfsCalls),
-                String.valueOf(dfsEdges),
-                String.valueOf(vDag),
-                String.valueOf(eDag),
-                fmt(topoMs),
-                String.valueOf(pops),
-                String.valueOf(pushes),
-                fmt(spMs),
-                String.valueOf(spRelax),
-                fmt(lpMs),
-                String.valueOf(lpRelax),
-                fmt(criticalLen),
-                csv(sourceVertex),
-                csv(sourceComp),
-                csv(spExampleTarget),
-                csv(spExamplePath),
-                csv(criticalPath)
-        );
-        pw.println(row);
-        pw.flush();
-    }
-
-    private static String joinPath(List<Integer> path) {
-        if (path == null || path.isEmpty()) return "";
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < path.size(); i++) {
-            if (i > 0) sb.append("->");
-            sb.append(path.get(i));
-        }
-        return sb.toString();
-    }
-
-    private static String csv(String s) {
-        if (s == null) return "";
-        boolean needsQuote = s.contains(",") || s.contains("\"") || s.contains("\n");
-        String t = s.replace("\"", "\"\"");
-        return needsQuote ? ("\"" + t + "\"") : t;
+                sourceVertex, sourceComp, spExampleTargetComp, spExamplePath, critPath,
+                r, dag, compTopo, spDist);
     }
 
     private static String fmt(double x) {
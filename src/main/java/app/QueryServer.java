@@ -0,0 +1,258 @@
+package app;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import graph.dagsp.CriticalPathMethod;
+import graph.dagsp.DAGShortestPath;
+import graph.scc.ParallelEdgePolicy;
+import graph.scc.TarjanSCC;
+import graph.topo.KahnTopoSort;
+import graph.topo.ReachabilityIndex;
+import util.CsrGraph;
+import util.GraphLoader;
+import util.Metrics;
+import util.WeightedLruCache;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Long-running query mode: loads one dataset, runs SCC + condensation + topo order +
+ * critical path once, and answers queries over HTTP on the loopback interface.
+ *
+ * Endpoints (GET, JSON responses; vertices are dataset vertex ids):
+ *   /shortest?from=U&to=V   shortest distance and component path from comp(U) to comp(V)
+ *   /reach?from=U&to=V      whether V is reachable from U
+ *   /critical[?vertex=V]    critical length and path; with vertex, its CPM schedule
+ *   /stats                  graph sizes and cache counters
+ *
+ * The analysis is immutable after startup, so handlers run concurrently on a thread
+ * pool without locking. /reach is answered by a ReachabilityIndex over the condensation.
+ * Per-source DistResults are kept in a WeightedLruCache bounded in bytes; a cached
+ * source answers in microseconds (path length, not graph size).
+ *
+ * Parallel edges between two components collapse to the cheapest one for /shortest
+ * (ParallelEdgePolicy.MIN) and to the dearest one for /critical (MAX).
+ *
+ * Usage: QueryServer <dataset.json | dataset.scg> [--port P] [--cache-mb M] [--threads T]
+ */
+public class QueryServer {
+    private final GraphLoader.Dataset ds;
+    private final TarjanSCC.Result r;
+    /** Condensation keeping the cheapest (shortest queries) / dearest (critical path) parallel edge. */
+    private final CsrGraph minDag, maxDag;
+    private final List<Integer> topo;
+    private final ReachabilityIndex.Index reach;
+    private final CriticalPathMethod.Result cpm;
+    private final List<Integer> criticalPath;
+    private final double criticalLen;
+    private final WeightedLruCache<Integer, DAGShortestPath.DistResult> cache;
+    private final DAGShortestPath dsp = new DAGShortestPath();
+    private HttpServer server;
+    private ExecutorService pool;
+
+    public QueryServer(GraphLoader.Dataset ds, long cacheBytes) {
+        this.ds = ds;
+        TarjanSCC scc = new TarjanSCC();
+        r = scc.findSCCs(ds.graph, new Metrics());
+        minDag = scc.buildCondensation(ds.graph, r, ParallelEdgePolicy.MIN);
+        maxDag = scc.buildCondensation(ds.graph, r, ParallelEdgePolicy.MAX);
+        topo = new KahnTopoSort().topoOrder(minDag, new Metrics()).order;
+        reach = new ReachabilityIndex().build(minDag, topo, new Metrics());
+        DAGShortestPath.DistResult lp = dsp.longestPathGlobal(maxDag, topo, new Metrics());
+        criticalPath = DAGShortestPath.reconstructPathToMax(lp.dist, lp.parent);
+        cpm = new CriticalPathMethod().analyze(maxDag, topo, new Metrics());
+        criticalLen = cpm.length;
+        // dist (8 bytes) + parent (4 bytes) per component, plus object headers
+        cache = new WeightedLruCache<>(cacheBytes, d -> 12L * d.dist.length + 64);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: QueryServer <dataset.json | dataset.scg> [--port P] [--cache-mb M] [--threads T]");
+            System.exit(2);
+        }
+        int port = 8080, cacheMb = 256, threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port": port = Integer.parseInt(args[++i]); break;
+                case "--cache-mb": cacheMb = Integer.parseInt(args[++i]); break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        long t0 = System.nanoTime();
+        QueryServer qs = new QueryServer(GraphLoader.loadDataset(args[0]), cacheMb * (1L << 20));
+        int bound = qs.start(port, threads);
+        System.out.printf("%s: n=%d m=%d SCC=%d ready in %.1f ms, listening on http://localhost:%d/%n",
+                args[0], qs.ds.graph.vertexCount(), qs.ds.graph.edgeCount(), qs.r.compCount,
+                (System.nanoTime() - t0) / 1e6, bound);
+    }
+
+    /** Starts serving on localhost:port (0 picks a free port); returns the bound port. */
+    public int start(int port, int threads) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/shortest", ex -> handle(ex, this::shortest));
+        server.createContext("/reach", ex -> handle(ex, this::reach));
+        server.createContext("/critical", ex -> handle(ex, this::critical));
+        server.createContext("/stats", ex -> handle(ex, q -> stats()));
+        pool = Executors.newFixedThreadPool(Math.max(1, threads));
+        server.setExecutor(pool);
+        server.start();
+        return server.getAddress().getPort();
+    }
+
+    /** Stops the server if it was started; safe to call more than once. */
+    public void stop() {
+        if (server != null) server.stop(0);
+        if (pool != null) pool.shutdown();
+        server = null;
+        pool = null;
+    }
+
+    private String shortest(Map<String, String> q) {
+        int from = vertex(q, "from"), to = vertex(q, "to");
+        int cs = r.compOf[from], ct = r.compOf[to];
+        DAGShortestPath.DistResult sp = distFrom(cs);
+        double d = sp.dist[ct];
+        StringBuilder sb = new StringBuilder(64);
+        sb.append("{\"from\":").append(from).append(",\"to\":").append(to)
+          .append(",\"from_comp\":").append(cs).append(",\"to_comp\":").append(ct)
+          .append(",\"reachable\":").append(Double.isFinite(d))
+          .append(",\"dist\":").append(num(d))
+          .append(",\"path_components\":");
+        appendList(sb, DAGShortestPath.reconstructPath(cs, ct, sp.parent));
+        return sb.append('}').toString();
+    }
+
+    private String reach(Map<String, String> q) {
+        int from = vertex(q, "from"), to = vertex(q, "to");
+        boolean reachable = reach.reachesVertex(r.compOf, from, to);
+        return "{\"from\":" + from + ",\"to\":" + to + ",\"reachable\":" + reachable + "}";
+    }
+
+    private String critical(Map<String, String> q) {
+        StringBuilder sb = new StringBuilder(64);
+        sb.append("{\"length\":").append(num(criticalLen)).append(",\"path_components\":");
+        appendList(sb, criticalPath);
+        if (q.containsKey("vertex")) {
+            int v = vertex(q, "vertex");
+            int c = r.compOf[v];
+            sb.append(",\"vertex\":").append(v)
+              .append(",\"earliest_start\":").append(num(cpm.earliest[c]))
+              .append(",\"latest_start\":").append(num(cpm.latest[c]))
+              .append(",\"slack\":").append(num(cpm.slack(c)))
+              .append(",\"critical\":").append(cpm.isCritical(c));
+        }
+        return sb.append('}').toString();
+    }
+
+    private String stats() {
+        return "{\"n\":" + ds.graph.vertexCount() + ",\"m\":" + ds.graph.edgeCount()
+                + ",\"scc_count\":" + r.compCount + ",\"dag_edges\":" + minDag.edgeCount()
+                + ",\"reach_index_bytes\":" + reach.memoryBytes()
+                + ",\"cache_entries\":" + cache.size() + ",\"cache_bytes\":" + cache.weight()
+                + ",\"cache_max_bytes\":" + cache.maxWeight() + ",\"cache_hits\":" + cache.hits()
+                + ",\"cache_misses\":" + cache.misses() + ",\"cache_evictions\":" + cache.evictions() + "}";
+    }
+
+    private DAGShortestPath.DistResult distFrom(int comp) {
+        return cache.computeIfAbsent(comp, c -> dsp.shortestPaths(minDag, c, topo, new Metrics()));
+    }
+
+    private int vertex(Map<String, String> q, String key) {
+        String s = q.get(key);
+        if (s == null) throw new IllegalArgumentException("missing parameter \"" + key + "\"");
+        int v;
+        try {
+            v = Integer.parseInt(s);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("\"" + key + "\" is not a vertex id: " + s);
+        }
+        if (v < 0 || v >= r.compOf.length) {
+            throw new IllegalArgumentException("\"" + key + "\" out of range for n=" + r.compOf.length + ": " + v);
+        }
+        return v;
+    }
+
+    private interface Query {
+        String answer(Map<String, String> params);
+    }
+
+    private static void handle(HttpExchange ex, Query query) throws IOException {
+        int status = 200;
+        String body;
+        try {
+            if (!"GET".equals(ex.getRequestMethod())) {
+                status = 405;
+                body = "{\"error\":\"GET only\"}";
+            } else {
+                body = query.answer(params(ex.getRequestURI()));
+            }
+        } catch (IllegalArgumentException e) {
+            status = 400;
+            body = error(e);
+        } catch (RuntimeException e) {
+            status = 500;
+            body = error(e);
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json");
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // {"error": message}, falling back to the exception class when there is no message
+    private static String error(RuntimeException e) {
+        String msg = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+        StringBuilder sb = new StringBuilder("{\"error\":\"");
+        for (int i = 0; i < msg.length(); i++) {
+            char c = msg.charAt(i);
+            if (c == '"' || c == '\\') sb.append('\\').append(c);
+            else if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+            else sb.append(c);
+        }
+        return sb.append("\"}").toString();
+    }
+
+    private static Map<String, String> params(URI uri) {
+        Map<String, String> out = new HashMap<>();
+        String q = uri.getRawQuery();
+        if (q == null) return out;
+        for (String kv : q.split("&")) {
+            int eq = kv.indexOf('=');
+            if (eq > 0) {
+                out.put(URLDecoder.decode(kv.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(kv.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return out;
+    }
+
+    private static void appendList(StringBuilder sb, List<Integer> xs) {
+        sb.append('[');
+        for (int i = 0; i < xs.size(); i++) {
+            if (i > 0) sb.append(',');
+            sb.append(xs.get(i));
+        }
+        sb.append(']');
+    }
+
+    // Main's %.3f, with null for INF (not valid JSON)
+    private static String num(double x) {
+        return Double.isFinite(x) ? String.format(Locale.US, "%.3f", x) : "null";
+    }
+}
@@ -0,0 +1,35 @@
+package app;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Output of a batch run: one summary row per dataset (into a single results file) and
+ * one details file per dataset, written through util.ChannelWriter.
+ *
+ * row() is called by one thread in dataset order; details() may run concurrently for
+ * different datasets, so each call owns its file. Details are streamed from the
+ * Analysis arrays (components, DAG edges, orders, distances) without building strings.
+ *
+ * Formats (-Dresults.format):
+ *   csv    : results.csv + details/NAME_details.txt (default)
+ *   jsonl  : results.jsonl + details/NAME_details.jsonl
+ *   binary : results.bin + details/NAME_details.bin
+ */
+interface ResultsSink extends Closeable {
+    void row(Analysis a) throws IOException;
+    void details(Analysis a) throws IOException;
+
+    /** Results file name for the summary, e.g. "results.csv". */
+    String resultsFile();
+
+    static ResultsSink open(String format, File resultsDir, File detailsDir) throws IOException {
+        switch (format) {
+            case "csv": return new CsvResultsSink(resultsDir, detailsDir);
+            case "jsonl": return new JsonLinesResultsSink(resultsDir, detailsDir);
+            case "binary": return new BinaryResultsSink(resultsDir, detailsDir);
+            default: throw new IllegalArgumentException("Unknown results format: " + format);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package graph.dagsp;
+/**
+ * Multi-source shortest paths on one DAG: fills a source-by-vertex distance matrix.
+ *
+ * The topological order is validated and indexed once (pos[v]) for the whole batch.
+ * Each source walks the order from its own position, since nothing before it is
+ * reachable. Sources are split across ForkJoin workers; each worker handles a block
+ * of sources. The float variant still relaxes in double and narrows each row at the
+ * end, so its values are the double results rounded once.
+ *
+ * Metrics keys (Metrics):
+ *  - "dagsp_relaxations" : relaxations summed over all sources
+ * Timed phase: "dagsp_batch".
+ */
+import util.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+public class BatchShortestPaths {
+    private static final int SP_RELAX = Metrics.register("dagsp_relaxations");
+
+    private final ForkJoinPool pool;
+    public BatchShortestPaths() {
+        this(ForkJoinPool.commonPool());
+    }
+    public BatchShortestPaths(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /** dist[i][v] = shortest distance from sources[i] to v (+INF if unreachable). */
+    public double[][] distances(GraphView dag, int[] sources, List<Integer> topo, Metrics m) {
+        return distances(dag, sources, DAGShortestPath.toArray(topo), m);
+    }
+    public double[][] distances(GraphView dag, int[] sources, int[] topo, Metrics m) {
+        double[][] rows = new double[sources.length][];
+        run(dag, sources, topo, rows, null, m);
+        return rows;
+    }
+    /** Same as distances(), stored as float to halve the matrix size. */
+    public float[][] distancesFloat(GraphView dag, int[] sources, List<Integer> topo, Metrics m) {
+        return distancesFloat(dag, sources, DAGShortestPath.toArray(topo), m);
+    }
+    public float[][] distancesFloat(GraphView dag, int[] sources, int[] topo, Metrics m) {
+        float[][] rows = new float[sources.length][];
+        run(dag, sources, topo, null, rows, m);
+        return rows;
+    }
+
+    private void run(GraphView dag, int[] sources, int[] topo, double[][] out, float[][] outF, Metrics m) {
+        final int n = dag.vertexCount();
+        if (topo == null || topo.length != n) {
+            throw new IllegalArgumentException("Invalid topological order size: " +
+                    (topo == null ? "null" : topo.length) + " vs dag.n=" + n);
+        }
+        int[] pos = new int[n];
+        for (int i = 0; i < n; i++) pos[topo[i]] = i;
+        for (int s : sources) {
+            if (s < 0 || s >= n) throw new IllegalArgumentException("Source " + s + " out of range for n=" + n);
+        }
+        m.begin("dagsp_batch");
+        AtomicLong relax = new AtomicLong();
+        int block = Math.max(1, sources.length / (pool.getParallelism() * 4));
+        pool.invoke(new Block(dag, sources, topo, pos, out, outF, relax, 0, sources.length, block));
+        m.add(SP_RELAX, relax.get());
+        m.end();
+    }
+
+    // Solves sources[lo, hi), splitting down to `block` sources per task.
+    private static final class Block extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final GraphView dag;
+        private final int[] sources, topo, pos;
+        private final double[][] out;
+        private final float[][] outF;
+        private final AtomicLong relax;
+        private final int lo, hi, block;
+        Block(GraphView dag, int[] sources, int[] topo, int[] pos, double[][] out, float[][] outF,
+              AtomicLong relax, int lo, int hi, int block) {
+            this.dag = dag;
+            this.sources = sources;
+            this.topo = topo;
+            this.pos = pos;
+            this.out = out;
+            this.outF = outF;
+            this.relax = relax;
+            this.lo = lo;
+            this.hi = hi;
+            this.block = block;
+        }
+        @Override
+        protected void compute() {
+            if (hi - lo > block) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new Block(dag, sources, topo, pos, out, outF, relax, lo, mid, block),
+                          new Block(dag, sources, topo, pos, out, outF, relax, mid, hi, block));
+                return;
+            }
+            final int n = topo.length;
+            double[] scratch = outF != null ? new double[n] : null;
+            long count = 0;
+            for (int i = lo; i < hi; i++) {
+                int src = sources[i];
+                double[] dist = scratch != null ? scratch : new double[n];
+                Arrays.fill(dist, Double.POSITIVE_INFINITY);
+                dist[src] = 0.0;
+                for (int k = pos[src]; k < n; k++) {
+                    int u = topo[k];
+                    double du = dist[u];
+                    if (du == Double.POSITIVE_INFINITY) continue;
+                    for (int e = dag.offset(u), end = dag.offset(u + 1); e < end; e++) {
+                        count++;
+                        int v = dag.target(e);
+                        double cand = du + dag.weight(e);
+                        if (cand < dist[v]) dist[v] = cand;
+                    }
+                }
+                if (outF == null) {
+                    out[i] = dist;
+                } else {
+                    float[] row = new float[n];
+                    for (int v = 0; v < n; v++) row[v] = (float) dist[v];
+                    outF[i] = row;
+                }
+            }
+            relax.addAndGet(count);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package graph.dagsp;
+/**
+ * Critical path method (CPM) on a DAG with edge weights as durations, in two sweeps
+ * along a topological order:
+ *  - forward : ES[v] = max over u -> v of ES[u] + w (0 for sources); length L = max ES
+ *  - backward: LS[u] = min over u -> v of LS[v] - w (L for sinks)
+ * slack = LS - ES; a task is critical when its slack is 0 (within 1e-9 * max(1, |L|),
+ * since ES and LS sum the weights in different orders).
+ *
+ * Both sweeps read only the forward CSR (no transpose, no indegree pass): a vertex still
+ * at -INF when the forward sweep reaches it has no predecessors, so it is a source.
+ * ES matches DAGShortestPath.longestPathGlobal's dist.
+ *
+ * Metrics keys (Metrics):
+ *  - "cpm_relaxations" : edge visits over both sweeps
+ * Timed phase: "cpm".
+ */
+import util.*;
+import java.util.*;
+public class CriticalPathMethod {
+    private static final int CPM_RELAX = Metrics.register("cpm_relaxations");
+
+    /** Per-task schedule; arrays are indexed by DAG vertex, or by graph vertex after mapToVertices(). */
+    public static final class Result {
+        public final double[] earliest, latest;
+        /** Project length: the largest earliest start (NEGATIVE_INFINITY for an empty DAG). */
+        public final double length;
+        private final long[] critical;    // bitset
+        private final int criticalCount;
+        Result(double[] earliest, double[] latest, double length, long[] critical, int criticalCount) {
+            this.earliest = earliest;
+            this.latest = latest;
+            this.length = length;
+            this.critical = critical;
+            this.criticalCount = criticalCount;
+        }
+        public double slack(int v) { return latest[v] - earliest[v]; }
+        public boolean isCritical(int v) { return (critical[v >>> 6] & (1L << v)) != 0; }
+        public int criticalCount() { return criticalCount; }
+        /** Ids of all critical tasks, ascending. */
+        public int[] criticalTasks() {
+            int[] out = new int[criticalCount];
+            int k = 0;
+            for (int w = 0; w < critical.length; w++) {
+                for (long bits = critical[w]; bits != 0; bits &= bits - 1) {
+                    out[k++] = (w << 6) + Long.numberOfTrailingZeros(bits);
+                }
+            }
+            return out;
+        }
+        /** Same schedule per original vertex: vertex v gets the values of component compOf[v]. */
+        public Result mapToVertices(int[] compOf) {
+            int n = compOf.length, count = 0;
+            double[] es = new double[n], ls = new double[n];
+            long[] crit = new long[(n + 63) >>> 6];
+            for (int v = 0; v < n; v++) {
+                int c = compOf[v];
+                es[v] = earliest[c];
+                ls[v] = latest[c];
+                if (isCritical(c)) {
+                    crit[v >>> 6] |= 1L << v;
+                    count++;
+                }
+            }
+            return new Result(es, ls, length, crit, count);
+        }
+    }
+
+    public Result analyze(GraphView dag, List<Integer> topo, Metrics m) {
+        int[] order = new int[topo == null ? 0 : topo.size()];
+        for (int i = 0; i < order.length; i++) order[i] = topo.get(i);
+        return analyze(dag, topo == null ? null : order, m);
+    }
+    public Result analyze(GraphView dag, int[] topo, Metrics m) {
+        final int n = dag.vertexCount();
+        if (topo == null || topo.length != n) {
+            throw new IllegalArgumentException("Invalid topological order size: " +
+                    (topo == null ? "null" : topo.length) + " vs dag.n=" + n);
+        }
+        double[] es = new double[n], ls = new double[n];
+        Arrays.fill(es, Double.NEGATIVE_INFINITY);
+        long relax = 0;
+        m.begin("cpm");
+        double length = Double.NEGATIVE_INFINITY;
+        for (int u : topo) {
+            double eu = es[u];
+            if (eu == Double.NEGATIVE_INFINITY) es[u] = eu = 0.0;   // no predecessor: source
+            if (eu > length) length = eu;
+            int end = dag.offset(u + 1);
+            relax += end - dag.offset(u);
+            for (int e = dag.offset(u); e < end; e++) {
+                int v = dag.target(e);
+                double cand = eu + dag.weight(e);
+                if (cand > es[v]) es[v] = cand;
+            }
+        }
+        double eps = 1e-9 * Math.max(1.0, Math.abs(length));
+        long[] crit = new long[(n + 63) >>> 6];
+        int count = 0;
+        for (int i = n - 1; i >= 0; i--) {
+            int u = topo[i];
+            int e = dag.offset(u), end = dag.offset(u + 1);
+            double lu = e == end ? length : Double.POSITIVE_INFINITY;
+            relax += end - e;
+            for (; e < end; e++) {
+                double cand = ls[dag.target(e)] - dag.weight(e);
+                if (cand < lu) lu = cand;
+            }
+            ls[u] = lu;
+            if (lu - es[u] <= eps) {
+                crit[u >>> 6] |= 1L << u;
+                count++;
+            }
+        }
+        m.add(CPM_RELAX, relax);
+        m.end();
+        return new Result(es, ls, length, crit, count);
+    }
+}
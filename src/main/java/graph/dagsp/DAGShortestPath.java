@@ -4,27 +4,87 @@ package graph.dagsp;
  *  - Single-source shortest paths (DP along topo order)
  *  - Global longest (critical) path (max-DP along topo order)
  *
+ * Orders may be given as List<Integer> or int[]; for repeated queries, shortestPaths /
+ * distance with a caller-owned Workspace reuse all arrays (epoch-stamped, never refilled)
+ * and write paths into an int buffer, so a warm query allocates nothing.
+ *
  * Metrics keys (Metrics):
  *  - "dagsp_relaxations" : number of relaxations in shortest paths
  *  - "daglp_relaxations" : number of relaxations in longest paths
+ * Timed phases: "dagsp", "daglp".
  */
 import util.*;
 import java.util.*;
 public class DAGShortestPath {
+    private static final int SP_RELAX = Metrics.register("dagsp_relaxations");
+    private static final int LP_RELAX = Metrics.register("daglp_relaxations");
     /** Distances and parents for path reconstruction. */
     public static class DistResult {
         public final double[] dist;
         public final int[] parent;
         public DistResult(double[] d, int[] p) { this.dist = d; this.parent = p; }
     }
+    /** Caller-owned scratch for repeated queries on one DAG and topological order; not thread-safe. */
+    public static final class Workspace {
+        private final int[] topo, pos;
+        private final double[] dist;
+        private final int[] parent, stamp;
+        private int epoch, source = -1;
+        /** Binds the workspace to a topological order (kept by reference, must not change). */
+        public Workspace(int[] topo) {
+            int n = topo.length;
+            this.topo = topo;
+            pos = new int[n];
+            Arrays.fill(pos, -1);
+            for (int i = 0; i < n; i++) {
+                int v = topo[i];
+                if (v < 0 || v >= n || pos[v] != -1) {
+                    throw new IllegalArgumentException("Not a permutation of 0.." + (n - 1) + " at index " + i);
+                }
+                pos[v] = i;
+            }
+            dist = new double[n];
+            parent = new int[n];
+            stamp = new int[n];
+        }
+        public int vertexCount() { return topo.length; }
+        /** Source of the last query, or -1. */
+        public int source() { return source; }
+        /** True if the last query reached v (for distance(), only v up to the target's position). */
+        public boolean reached(int v) { return stamp[v] == epoch && source != -1; }
+        /** Distance of v in the last query, +INF if not reached. */
+        public double dist(int v) { return reached(v) ? dist[v] : Double.POSITIVE_INFINITY; }
+        /** Predecessor of v on its shortest path, -1 for the source or if not reached. */
+        public int parent(int v) { return reached(v) ? parent[v] : -1; }
+        /**
+         * Writes the path source .. t of the last query into out and returns its length
+         * (0 if t was not reached). out must hold the path; vertexCount() always suffices.
+         */
+        public int path(int t, int[] out) {
+            if (!reached(t)) return 0;
+            int len = 1;
+            for (int v = t; v != source; v = parent[v]) len++;
+            if (out.length < len) throw new IllegalArgumentException("Path has " + len + " vertices, buffer " + out.length);
+            for (int v = t, i = len - 1; i >= 0; v = parent[v], i--) out[i] = v;
+            return len;
+        }
+        private int nextEpoch() {
+            if (++epoch == Integer.MAX_VALUE) {
+                Arrays.fill(stamp, 0);
+                epoch = 1;
+            }
+            return epoch;
+        }
+    }
+
     /** Single-source shortest paths on a DAG using a provided topological order (edge weights). */
-    public DistResult shortestPaths(Graph dag, int src, List<Integer> topo, Metrics m) {
+    public DistResult shortestPaths(GraphView dag, int src, List<Integer> topo, Metrics m) {
+        return shortestPaths(dag, src, toArray(topo), m);
+    }
+    public DistResult shortestPaths(GraphView dag, int src, int[] topo, Metrics m) {
         // Validate topological order
-        if (topo == null || topo.size() != dag.n) {
-            throw new IllegalArgumentException("Invalid topological order size: " +
-                    (topo == null ? "null" : topo.size()) + " vs dag.n=" + dag.n);
-        }
-        final int n = dag.n;
+        final int n = dag.vertexCount();
+        checkOrder(topo, n);
         final double INF = Double.POSITIVE_INFINITY;
         double[] dist = new double[n];
         int[] parent  = new int[n];
@@ -32,29 +92,79 @@ public class DAGShortestPath {
         Arrays.fill(parent, -1);
         dist[src] = 0.0;
 
-        m.start();
+        long relax = 0;
+        m.begin("dagsp");
         for (int u : topo) {
             if (Double.isInfinite(dist[u])) continue; // unreachable so far
-            for (Edge e : dag.adj.get(u)) {
-                m.inc("dagsp_relaxations");
-                double cand = dist[u] + e.weight;
-                if (cand < dist[e.to]) {
-                    dist[e.to] = cand;
-                    parent[e.to] = u;
+            for (int e = dag.offset(u), end = dag.offset(u + 1); e < end; e++) {
+                relax++;
+                int v = dag.target(e);
+                double cand = dist[u] + dag.weight(e);
+                if (cand < dist[v]) {
+                    dist[v] = cand;
+                    parent[v] = u;
                 }
             }
         }
-        m.stop();
+        m.add(SP_RELAX, relax);
+        m.end();
         return new DistResult(dist, parent);
     }
+    /** Shortest paths from src into ws (same results as above, no allocation). */
+    public void shortestPaths(GraphView dag, int src, Workspace ws, Metrics m) {
+        run(dag, src, ws.topo.length - 1, ws, m);
+    }
+    /**
+     * Shortest distance src -> dst (+INF if unreachable); the DP stops at dst's topo
+     * position. ws.path(dst, buf) then gives the path.
+     */
+    public double distance(GraphView dag, int src, int dst, Workspace ws, Metrics m) {
+        run(dag, src, ws.pos[dst], ws, m);
+        return ws.dist(dst);
+    }
+    // DP over ws.topo[pos[src] .. last]; stamp[v] == epoch marks v as reached.
+    private void run(GraphView dag, int src, int last, Workspace ws, Metrics m) {
+        if (dag.vertexCount() != ws.topo.length) {
+            throw new IllegalArgumentException("Workspace is for n=" + ws.topo.length + ", dag.n=" + dag.vertexCount());
+        }
+        final int[] topo = ws.topo, parent = ws.parent, stamp = ws.stamp;
+        final double[] dist = ws.dist;
+        final int ep = ws.nextEpoch();
+        ws.source = src;
+        stamp[src] = ep;
+        dist[src] = 0.0;
+        parent[src] = -1;
+        long relax = 0;
+        m.begin("dagsp");
+        for (int k = ws.pos[src]; k <= last; k++) {
+            int u = topo[k];
+            if (stamp[u] != ep) continue;
+            double du = dist[u];
+            for (int e = dag.offset(u), end = dag.offset(u + 1); e < end; e++) {
+                relax++;
+                int v = dag.target(e);
+                double cand = du + dag.weight(e);
+                if (stamp[v] != ep) {
+                    stamp[v] = ep;
+                    dist[v] = cand;
+                    parent[v] = u;
+                } else if (cand < dist[v]) {
+                    dist[v] = cand;
+                    parent[v] = u;
+                }
+            }
+        }
+        m.add(SP_RELAX, relax);
+        m.end();
+    }
     /** Global longest (critical) path via max-DP along the topological order. */
-    public DistResult longestPathGlobal(Graph dag, List<Integer> topo, Metrics m) {
+    public DistResult longestPathGlobal(GraphView dag, List<Integer> topo, Metrics m) {
+        return longestPathGlobal(dag, toArray(topo), m);
+    }
+    public DistResult longestPathGlobal(GraphView dag, int[] topo, Metrics m) {
         // Validate topological order
-        if (topo == null || topo.size() != dag.n) {
-            throw new IllegalArgumentException("Invalid topological order size: " +
-                    (topo == null ? "null" : topo.size()) + " vs dag.n=" + dag.n);
-        }
-        final int n = dag.n;
+        final int n = dag.vertexCount();
+        checkOrder(topo, n);
         final double NEG = Double.NEGATIVE_INFINITY;
 
         double[] dist = new double[n];
@@ -62,23 +172,24 @@ public class DAGShortestPath {
         Arrays.fill(dist, NEG);
         Arrays.fill(parent, -1);
         // Initialize all sources (indegree == 0) with 0
-        int[] indeg = new int[n];
-        for (int u = 0; u < n; u++) for (Edge e : dag.adj.get(u)) indeg[e.to]++;
-        for (int v = 0; v < n; v++) if (indeg[v] == 0) dist[v] = 0.0;
+        for (int v = 0; v < n; v++) if (dag.inDegree(v) == 0) dist[v] = 0.0;
 
-        m.start();
+        long relax = 0;
+        m.begin("daglp");
         for (int u : topo) {
             if (dist[u] == NEG) continue; // unreachable in current max-DP
-            for (Edge e : dag.adj.get(u)) {
-                m.inc("daglp_relaxations");
-                double cand = dist[u] + e.weight;
-                if (cand > dist[e.to]) {
-                    dist[e.to] = cand;
-                    parent[e.to] = u;
+            for (int e = dag.offset(u), end = dag.offset(u + 1); e < end; e++) {
+                relax++;
+                int v = dag.target(e);
+                double cand = dist[u] + dag.weight(e);
+                if (cand > dist[v]) {
+                    dist[v] = cand;
+                    parent[v] = u;
                 }
             }
         }
-        m.stop();
+        m.add(LP_RELAX, relax);
+        m.end();
         return new DistResult(dist, parent);
     }
     /** Reconstruct path s->t using parent array; returns empty list if unreachable. */
@@ -91,6 +202,20 @@ public class DAGShortestPath {
         Collections.reverse(path);
         return path.isEmpty() || path.get(0) != s ? Collections.emptyList() : path;
     }
+    /** Writes the path s..t into out and returns its length (0 if unreachable); no boxing. */
+    public static int reconstructPath(int s, int t, int[] parent, int[] out) {
+        int len = 0;
+        int cur = t;
+        for (; cur != -1; cur = parent[cur]) {
+            len++;
+            if (cur == s) break;
+        }
+        if (cur != s) return 0;
+        if (out.length < len) throw new IllegalArgumentException("Path has " + len + " vertices, buffer " + out.length);
+        cur = t;
+        for (int i = len - 1; i >= 0; i--, cur = parent[cur]) out[i] = cur;
+        return len;
+    }
     /** Reconstruct one of the globally maximum paths (by the largest dist[v]). */
     public static List<Integer> reconstructPathToMax(double[] dist, int[] parent) {
         int bestV = -1; double best = Double.NEGATIVE_INFINITY;
@@ -101,5 +226,17 @@ public class DAGShortestPath {
         Collections.reverse(p);
         return p;
     }
-}
 
+    static int[] toArray(List<Integer> topo) {
+        if (topo == null) return null;
+        int[] a = new int[topo.size()];
+        for (int i = 0; i < a.length; i++) a[i] = topo.get(i);
+        return a;
+    }
+    private static void checkOrder(int[] topo, int n) {
+        if (topo == null || topo.length != n) {
+            throw new IllegalArgumentException("Invalid topological order size: " +
+                    (topo == null ? "null" : topo.length) + " vs dag.n=" + n);
+        }
+    }
+}
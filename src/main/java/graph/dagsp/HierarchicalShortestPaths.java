@@ -0,0 +1,355 @@
+package graph.dagsp;
+/**
+ * Exact vertex-level single-source shortest paths (non-negative weights) on a general
+ * directed graph, composed from its SCCs:
+ *  - inside an SCC, Dijkstra over the component's internal edges only
+ *  - between SCCs, one relaxation of the cross edges, component by component in the
+ *    condensation's topological order (a component is final once all earlier ones are)
+ *
+ * build() precomputes, for every SCC with entries * size <= tableLimit cells, a table
+ * of internal distances from each entry vertex (head of a cross edge) to every vertex of
+ * the component, running the per-entry Dijkstras for all components in parallel on a
+ * ForkJoinPool. A query then finalizes such a component with min over reached entries
+ * of dist[entry] + table[entry][v], with no heap at all; singletons need no work, and
+ * only the source's component and components over the table limit run a seeded
+ * Dijkstra at query time. On graphs with many small SCCs along a long DAG backbone this
+ * replaces flat Dijkstra's O(m log n) with about O(m + table reads).
+ *
+ * dijkstra() is the flat reference (same distances, bit for bit not guaranteed: sums
+ * along equal-length paths may round differently).
+ *
+ * Metrics keys (Metrics):
+ *  - "hsp_table_cells"  : table entries computed by build()
+ *  - "hsp_settled"      : vertices settled by query-time (or flat) Dijkstra
+ *  - "hsp_table_reads"  : table cells read by queries
+ * Timed phases: "hsp_build", "hsp", "dijkstra" (the flat reference).
+ */
+import graph.scc.ParallelEdgePolicy;
+import graph.scc.TarjanSCC;
+import util.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+public class HierarchicalShortestPaths {
+    private static final int TABLE_CELLS = Metrics.register("hsp_table_cells");
+    private static final int SETTLED = Metrics.register("hsp_settled");
+    private static final int TABLE_READS = Metrics.register("hsp_table_reads");
+    /** Components per ForkJoin leaf task while building tables. */
+    static final int GRAIN = 16;
+    /** Largest table a double[] can hold. */
+    static final int MAX_TABLE = Integer.MAX_VALUE - 8;
+
+    private final ForkJoinPool pool;
+    private long tableLimit = 1 << 16;
+
+    public HierarchicalShortestPaths() {
+        this(ForkJoinPool.commonPool());
+    }
+    public HierarchicalShortestPaths(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+    /** Largest entries * size for which a component gets a table (default 65536, capped at MAX_TABLE). */
+    public HierarchicalShortestPaths tableLimit(long cells) {
+        if (cells < 0) throw new IllegalArgumentException("tableLimit must be non-negative: " + cells);
+        tableLimit = Math.min(cells, MAX_TABLE);
+        return this;
+    }
+
+    /** Precomputed SCC structure and entry tables; queries are thread-safe. */
+    public static final class Index {
+        private final GraphView g;
+        private final TarjanSCC.Result scc;
+        private final int[] topo, compPos;
+        private final int[] local;          // v -> index within its component
+        private final int[] entryStart;     // entries of c: entries[entryStart[c] .. entryStart[c + 1])
+        private final int[] entries;        // local indices
+        private final double[][] tables;    // c -> row-major [entry][local], null if none
+        private final int maxDynamic;       // largest component a query may run Dijkstra on
+
+        Index(GraphView g, TarjanSCC.Result scc, int[] topo, int[] local, int[] entryStart,
+              int[] entries, double[][] tables, int maxDynamic) {
+            this.g = g;
+            this.scc = scc;
+            this.topo = topo;
+            this.local = local;
+            this.entryStart = entryStart;
+            this.entries = entries;
+            this.tables = tables;
+            this.maxDynamic = maxDynamic;
+            compPos = new int[scc.compCount];
+            for (int i = 0; i < topo.length; i++) compPos[topo[i]] = i;
+        }
+
+        public TarjanSCC.Result scc() { return scc; }
+        public boolean hasTable(int comp) { return tables[comp] != null; }
+        /** Heap bytes of the tables and index arrays (not the graph or SCC result). */
+        public long memoryBytes() {
+            long b = 4L * (topo.length + compPos.length + local.length + entryStart.length
+                    + entries.length);
+            for (double[] t : tables) if (t != null) b += 8L * t.length + 16;
+            return b;
+        }
+
+        /** Distance from source to every vertex (+INF if unreachable). */
+        public double[] shortestPaths(int source, Metrics m) {
+            return run(source, -1, m);
+        }
+        /** Distance source -> target; stops once target's component is final. */
+        public double distance(int source, int target, Metrics m) {
+            return run(source, target, m)[target];
+        }
+
+        private double[] run(int source, int target, Metrics m) {
+            final int n = g.vertexCount();
+            final int[] members = scc.members, start = scc.compStart, compOf = scc.compOf;
+            double[] dist = new double[n];
+            Arrays.fill(dist, Double.POSITIVE_INFINITY);
+            boolean[] reached = new boolean[scc.compCount];
+            Dijkstra dj = new Dijkstra(Math.max(1, maxDynamic));
+            double[] row = new double[Math.max(1, maxTableWidth())];
+            int cs = compOf[source], ct = target < 0 ? -1 : compOf[target];
+            dist[source] = 0.0;
+            reached[cs] = true;
+            long reads = 0;
+            m.begin("hsp");
+            for (int k = compPos[cs]; k < topo.length; k++) {
+                int c = topo[k];
+                if (!reached[c]) continue;
+                int a = start[c], b = start[c + 1];
+                if (b - a > 1) {
+                    if (c == cs || tables[c] == null) {
+                        dj.run(g, scc, local, c, dist);
+                    } else {
+                        reads += fromTable(c, dist, row);
+                    }
+                }
+                if (c == ct) break;
+                for (int i = a; i < b; i++) {
+                    int u = members[i];
+                    double du = dist[u];
+                    if (du == Double.POSITIVE_INFINITY) continue;
+                    for (int e = g.offset(u), end = g.offset(u + 1); e < end; e++) {
+                        int v = g.target(e), cv = compOf[v];
+                        if (cv == c) continue;
+                        double cand = du + g.weight(e);
+                        if (cand < dist[v]) {
+                            dist[v] = cand;
+                            reached[cv] = true;
+                        }
+                    }
+                }
+            }
+            m.add(SETTLED, dj.settled);
+            m.add(TABLE_READS, reads);
+            m.end();
+            return dist;
+        }
+
+        // dist[v] = min over entries x of dist[x] + table[x][v], for the component's vertices
+        private long fromTable(int c, double[] dist, double[] row) {
+            final int[] members = scc.members;
+            int a = scc.compStart[c], size = scc.compStart[c + 1] - a;
+            double[] t = tables[c];
+            Arrays.fill(row, 0, size, Double.POSITIVE_INFINITY);
+            long reads = 0;
+            for (int x = entryStart[c]; x < entryStart[c + 1]; x++) {
+                double dx = dist[members[a + entries[x]]];
+                if (dx == Double.POSITIVE_INFINITY) continue;
+                int base = (x - entryStart[c]) * size;
+                for (int j = 0; j < size; j++) {
+                    double cand = dx + t[base + j];
+                    if (cand < row[j]) row[j] = cand;
+                }
+                reads += size;
+            }
+            for (int j = 0; j < size; j++) dist[members[a + j]] = row[j];
+            return reads;
+        }
+
+        private int maxTableWidth() {
+            int w = 0;
+            for (int c = 0; c < scc.compCount; c++) if (tables[c] != null) w = Math.max(w, scc.componentSize(c));
+            return w;
+        }
+    }
+
+    // Multi-source Dijkstra inside one component: seeds are its vertices with a finite
+    // dist, only internal edges are relaxed. The heap holds local indices.
+    private static final class Dijkstra {
+        final IndexedMinHeap heap;
+        long settled;
+        Dijkstra(int capacity) {
+            heap = new IndexedMinHeap(capacity);
+        }
+        void run(GraphView g, TarjanSCC.Result scc, int[] local, int c, double[] dist) {
+            final int[] members = scc.members, compOf = scc.compOf;
+            int a = scc.compStart[c], b = scc.compStart[c + 1];
+            heap.clear();
+            for (int i = a; i < b; i++) {
+                if (dist[members[i]] != Double.POSITIVE_INFINITY) heap.add(i - a, dist[members[i]]);
+            }
+            while (!heap.isEmpty()) {
+                int u = members[a + heap.poll()];
+                settled++;
+                double du = dist[u];
+                for (int e = g.offset(u), end = g.offset(u + 1); e < end; e++) {
+                    int v = g.target(e);
+                    if (compOf[v] != c) continue;
+                    double cand = du + g.weight(e);
+                    if (cand < dist[v]) {
+                        dist[v] = cand;
+                        heap.addOrUpdate(local[v], cand);
+                    }
+                }
+            }
+        }
+    }
+
+    /** Decomposes g (Tarjan) and builds the index. */
+    public Index build(GraphView g, Metrics m) {
+        TarjanSCC.Pipeline p = new TarjanSCC().findSCCsWithOrder(g, false, ParallelEdgePolicy.FIRST, m);
+        return build(g, p.scc, p.topo, m);
+    }
+    /** Builds the index from an SCC result and a topological order of its components. */
+    public Index build(GraphView g, TarjanSCC.Result scc, int[] compTopo, Metrics m) {
+        final int n = g.vertexCount(), k = scc.compCount;
+        if (compTopo == null || compTopo.length != k) {
+            throw new IllegalArgumentException("Invalid topological order size: " +
+                    (compTopo == null ? "null" : compTopo.length) + " vs compCount=" + k);
+        }
+        m.begin("hsp_build");
+        final int[] members = scc.members, start = scc.compStart, compOf = scc.compOf;
+        int[] local = new int[n];
+        for (int c = 0; c < k; c++) for (int i = start[c]; i < start[c + 1]; i++) local[members[i]] = i - start[c];
+        // entries: heads of cross edges, in non-singleton components
+        boolean[] isEntry = new boolean[n];
+        int[] entryStart = new int[k + 1];
+        for (int u = 0; u < n; u++) {
+            for (int e = g.offset(u), end = g.offset(u + 1); e < end; e++) {
+                double w = g.weight(e);
+                if (!(w >= 0)) throw new IllegalArgumentException("Negative or NaN weight on edge " + u + "->" + g.target(e) + ": " + w);
+                int v = g.target(e), cv = compOf[v];
+                if (cv != compOf[u] && !isEntry[v] && scc.componentSize(cv) > 1) {
+                    isEntry[v] = true;
+                    entryStart[cv + 1]++;
+                }
+            }
+        }
+        for (int c = 0; c < k; c++) entryStart[c + 1] += entryStart[c];
+        int[] entries = new int[entryStart[k]];
+        for (int c = 0; c < k; c++) {
+            int x = entryStart[c];
+            for (int i = start[c]; i < start[c + 1]; i++) {
+                if (isEntry[members[i]]) entries[x++] = i - start[c];
+            }
+        }
+        double[][] tables = new double[k][];
+        int[] work = new int[k];
+        int jobs = 0, maxDynamic = 0, maxTabled = 0;
+        long cells = 0;
+        for (int c = 0; c < k; c++) {
+            int size = scc.componentSize(c);
+            if (size == 1) continue;
+            long t = (long) (entryStart[c + 1] - entryStart[c]) * size;
+            if (t <= tableLimit) {
+                tables[c] = new double[(int) t];
+                work[jobs++] = c;
+                cells += t;
+                maxTabled = Math.max(maxTabled, size);
+            } else {
+                maxDynamic = Math.max(maxDynamic, size);
+            }
+        }
+        // the source's component always runs Dijkstra at query time
+        maxDynamic = Math.max(maxDynamic, maxTabled);
+        if (jobs > 0) pool.invoke(new TableTask(g, scc, local, entryStart, entries, tables, work, 0, jobs));
+        m.add(TABLE_CELLS, cells);
+        m.end();
+        return new Index(g, scc, compTopo, local, entryStart, entries, tables, maxDynamic);
+    }
+
+    // Fills the tables of work[lo .. hi): one Dijkstra per entry, from a scratch dist row.
+    private static final class TableTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        final GraphView g;
+        final TarjanSCC.Result scc;
+        final int[] local, entryStart, entries, work;
+        final double[][] tables;
+        final int lo, hi;
+        TableTask(GraphView g, TarjanSCC.Result scc, int[] local, int[] entryStart, int[] entries,
+                  double[][] tables, int[] work, int lo, int hi) {
+            this.g = g;
+            this.scc = scc;
+            this.local = local;
+            this.entryStart = entryStart;
+            this.entries = entries;
+            this.tables = tables;
+            this.work = work;
+            this.lo = lo;
+            this.hi = hi;
+        }
+        @Override
+        protected void compute() {
+            if (hi - lo > GRAIN) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new TableTask(g, scc, local, entryStart, entries, tables, work, lo, mid),
+                          new TableTask(g, scc, local, entryStart, entries, tables, work, mid, hi));
+                return;
+            }
+            final int[] members = scc.members, compOf = scc.compOf;
+            for (int w = lo; w < hi; w++) {
+                int c = work[w], a = scc.compStart[c], size = scc.compStart[c + 1] - a;
+                double[] t = tables[c];
+                IndexedMinHeap heap = new IndexedMinHeap(size);
+                for (int x = entryStart[c]; x < entryStart[c + 1]; x++) {
+                    int base = (x - entryStart[c]) * size;
+                    Arrays.fill(t, base, base + size, Double.POSITIVE_INFINITY);
+                    t[base + entries[x]] = 0.0;
+                    heap.add(entries[x], 0.0);
+                    while (!heap.isEmpty()) {
+                        int lu = heap.poll(), u = members[a + lu];
+                        double du = t[base + lu];
+                        for (int e = g.offset(u), end = g.offset(u + 1); e < end; e++) {
+                            int v = g.target(e);
+                            if (compOf[v] != c) continue;
+                            int lv = local[v];
+                            double cand = du + g.weight(e);
+                            if (cand < t[base + lv]) {
+                                t[base + lv] = cand;
+                                heap.addOrUpdate(lv, cand);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /** Flat Dijkstra over the whole graph (the reference the hierarchy replaces). */
+    public static double[] dijkstra(GraphView g, int source, Metrics m) {
+        final int n = g.vertexCount();
+        double[] dist = new double[n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        IndexedMinHeap heap = new IndexedMinHeap(n);
+        dist[source] = 0.0;
+        heap.add(source, 0.0);
+        long settled = 0;
+        m.begin("dijkstra");
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            settled++;
+            double du = dist[u];
+            for (int e = g.offset(u), end = g.offset(u + 1); e < end; e++) {
+                int v = g.target(e);
+                double cand = du + g.weight(e);
+                if (cand < dist[v]) {
+                    dist[v] = cand;
+                    heap.addOrUpdate(v, cand);
+                }
+            }
+        }
+        m.add(SETTLED, settled);
+        m.end();
+        return dist;
+    }
+}
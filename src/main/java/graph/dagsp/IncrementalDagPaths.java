@@ -0,0 +1,258 @@
+package graph.dagsp;
+/**
+ * Shortest paths from one source and the global longest (critical) path on a DAG, kept
+ * up to date under batches of edge-weight changes.
+ *
+ * update() applies the new weights, then recomputes only the heads of changed edges and,
+ * transitively, the successors of vertices whose distance changed. Dirty vertices sit in
+ * an IndexedMinHeap keyed by topological position, so every vertex is recomputed at most
+ * once per batch, after all of its predecessors are final. A recompute pulls from the
+ * in-edges and breaks ties on the earliest (predecessor position, edge index), the order
+ * in which DAGShortestPath relaxes edges. Distances and parents are therefore identical
+ * to a full shortestPaths / longestPathGlobal on the updated weights.
+ *
+ * The critical path ends at the smallest vertex id with the largest longest-path
+ * distance (as reconstructPathToMax). It is updated from the changed vertices, with one
+ * O(n) rescan only when that endpoint's distance decreased.
+ *
+ * Metrics keys (Metrics):
+ *  - "dag_incr_visits"      : vertices recomputed by update()
+ *  - "dag_incr_relaxations" : in-edges read by those recomputes
+ * Timed phase: "dag_incr".
+ */
+import util.*;
+import java.util.*;
+public class IncrementalDagPaths {
+    private static final int VISITS = Metrics.register("dag_incr_visits");
+    private static final int RELAX = Metrics.register("dag_incr_relaxations");
+
+    /** What one update() changed; vertex lists are in topological order. */
+    public static final class Changes {
+        /** Vertices whose shortest distance from the source changed. */
+        public final int[] shortest;
+        /** Vertices whose longest-path distance changed. */
+        public final int[] longest;
+        public final boolean criticalLengthChanged;
+        Changes(int[] shortest, int[] longest, boolean criticalLengthChanged) {
+            this.shortest = shortest;
+            this.longest = longest;
+            this.criticalLengthChanged = criticalLengthChanged;
+        }
+    }
+
+    private final int n;
+    private final int[] off, tgt;          // forward CSR
+    private final double[] w;              // current weight of each edge
+    private final int[] inOff, inEdge;     // edges into v: inEdge[inOff[v] .. inOff[v + 1])
+    private final int[] src;               // tail of each edge
+    private final int[] topo, pos;
+    private final int source;
+    private final double[] sp, lp;
+    private final int[] spParent, lpParent;
+    private int critEnd;
+    private long visits, relaxations;
+    private final IndexedMinHeap heap;
+    private final int[] seeds, mark, changed;
+    private int epoch;
+
+    /**
+     * Solves dag once (source -1: longest paths only; the shortest-path accessors then
+     * throw IllegalStateException). The DAG's structure and topo are copied; later weight
+     * changes go through update().
+     */
+    public IncrementalDagPaths(GraphView dag, int[] topo, int source, Metrics m) {
+        n = dag.vertexCount();
+        int edges = dag.edgeCount();
+        if (topo == null || topo.length != n) {
+            throw new IllegalArgumentException("Invalid topological order size: " +
+                    (topo == null ? "null" : topo.length) + " vs dag.n=" + n);
+        }
+        if (source < -1 || source >= n) throw new IllegalArgumentException("source out of range: " + source);
+        this.topo = topo.clone();
+        this.source = source;
+        pos = new int[n];
+        for (int i = 0; i < n; i++) pos[topo[i]] = i;
+        off = new int[n + 1];
+        tgt = new int[edges];
+        w = new double[edges];
+        src = new int[edges];
+        inOff = new int[n + 1];
+        for (int u = 0; u <= n; u++) off[u] = dag.offset(u);
+        for (int u = 0; u < n; u++) {
+            for (int e = off[u]; e < off[u + 1]; e++) {
+                tgt[e] = dag.target(e);
+                w[e] = dag.weight(e);
+                src[e] = u;
+                inOff[tgt[e] + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) inOff[v + 1] += inOff[v];
+        inEdge = new int[edges];
+        int[] next = Arrays.copyOf(inOff, n);
+        for (int e = 0; e < edges; e++) inEdge[next[tgt[e]]++] = e;
+
+        DAGShortestPath dsp = new DAGShortestPath();
+        if (source >= 0) {
+            DAGShortestPath.DistResult s = dsp.shortestPaths(dag, source, this.topo, m);
+            sp = s.dist;
+            spParent = s.parent;
+        } else {
+            sp = null;
+            spParent = null;
+        }
+        DAGShortestPath.DistResult l = dsp.longestPathGlobal(dag, this.topo, m);
+        lp = l.dist;
+        lpParent = l.parent;
+        critEnd = argMax();
+        heap = new IndexedMinHeap(n);
+        seeds = new int[n];
+        mark = new int[n];
+        changed = new int[n];
+    }
+
+    /**
+     * Sets weight(edges[i]) = weights[i] for all i and propagates the effect. Edges whose
+     * weight does not change cost nothing.
+     */
+    public Changes update(int[] edges, double[] weights, Metrics m) {
+        if (edges.length != weights.length) {
+            throw new IllegalArgumentException("edges and weights differ in length: " + edges.length + " vs " + weights.length);
+        }
+        m.begin("dag_incr");
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(mark, 0);
+            epoch = 1;
+        }
+        int seedCount = 0;
+        for (int i = 0; i < edges.length; i++) {
+            int e = edges[i];
+            if (Double.compare(w[e], weights[i]) == 0) continue;
+            w[e] = weights[i];
+            int v = tgt[e];
+            if (mark[v] != epoch) {
+                mark[v] = epoch;
+                seeds[seedCount++] = v;
+            }
+        }
+        visits = relaxations = 0;
+        int[] spChanged = source >= 0 ? propagate(seedCount, true) : new int[0];
+        double oldLen = criticalLength();
+        int[] lpChanged = propagate(seedCount, false);
+        updateCriticalEnd(oldLen, lpChanged);
+        m.add(VISITS, visits);
+        m.add(RELAX, relaxations);
+        m.end();
+        return new Changes(spChanged, lpChanged, Double.compare(oldLen, criticalLength()) != 0);
+    }
+
+    // Recomputes the seeds and everything downstream of a change, in topo position order.
+    private int[] propagate(int seedCount, boolean shortest) {
+        double[] dist = shortest ? sp : lp;
+        int[] parent = shortest ? spParent : lpParent;
+        heap.clear();
+        for (int i = 0; i < seedCount; i++) heap.add(seeds[i], pos[seeds[i]]);
+        int count = 0;
+        while (!heap.isEmpty()) {
+            int v = heap.poll();
+            visits++;
+            int a = inOff[v], b = inOff[v + 1];
+            if (shortest ? v == source : a == b) continue;     // fixed at 0
+            double best = shortest ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+            int bestEdge = -1;
+            relaxations += b - a;
+            for (int i = a; i < b; i++) {
+                int e = inEdge[i], u = src[e];
+                double du = dist[u];
+                if (shortest && du == Double.POSITIVE_INFINITY) continue;
+                double cand = du + w[e];
+                boolean better = shortest ? cand < best : cand > best;
+                if (better || (cand == best && bestEdge >= 0 && earlier(e, bestEdge))) {
+                    best = cand;
+                    bestEdge = e;
+                }
+            }
+            parent[v] = bestEdge < 0 ? -1 : src[bestEdge];
+            if (Double.compare(dist[v], best) == 0) continue;
+            dist[v] = best;
+            changed[count++] = v;
+            for (int e = off[v]; e < off[v + 1]; e++) {
+                if (!heap.contains(tgt[e])) heap.add(tgt[e], pos[tgt[e]]);
+            }
+        }
+        return Arrays.copyOf(changed, count);
+    }
+
+    // Relaxation order of a full DP: tail's topo position, then edge index.
+    private boolean earlier(int e, int f) {
+        int pe = pos[src[e]], pf = pos[src[f]];
+        return pe < pf || (pe == pf && e < f);
+    }
+
+    private void updateCriticalEnd(double oldLen, int[] lpChanged) {
+        if (critEnd < 0) return;
+        double best = lp[critEnd];
+        if (best < oldLen) {            // the endpoint got shorter: any vertex may lead now
+            critEnd = argMax();
+            return;
+        }
+        for (int v : lpChanged) {
+            if (lp[v] > best || (lp[v] == best && v < critEnd)) {
+                best = lp[v];
+                critEnd = v;
+            }
+        }
+    }
+
+    private int argMax() {
+        int bestV = -1;
+        double best = Double.NEGATIVE_INFINITY;
+        for (int v = 0; v < n; v++) if (lp[v] > best) { best = lp[v]; bestV = v; }
+        return bestV;
+    }
+
+    public int source() { return source; }
+    public double weight(int e) { return w[e]; }
+    /** Index of the first edge u -> v, or -1. */
+    public int edgeIndex(int u, int v) {
+        for (int e = off[u]; e < off[u + 1]; e++) if (tgt[e] == v) return e;
+        return -1;
+    }
+    public double shortestDist(int v) {
+        requireSource();
+        return sp[v];
+    }
+    public int shortestParent(int v) {
+        requireSource();
+        return spParent[v];
+    }
+    public double longestDist(int v) { return lp[v]; }
+    public int longestParent(int v) { return lpParent[v]; }
+    /** Copies of the current shortest-path arrays (as shortestPaths would return them). */
+    public DAGShortestPath.DistResult shortestPaths() {
+        requireSource();
+        return new DAGShortestPath.DistResult(sp.clone(), spParent.clone());
+    }
+    /** Copies of the current longest-path arrays (as longestPathGlobal would return them). */
+    public DAGShortestPath.DistResult longestPaths() {
+        return new DAGShortestPath.DistResult(lp.clone(), lpParent.clone());
+    }
+    /** Largest longest-path distance (NEGATIVE_INFINITY for an empty DAG). */
+    public double criticalLength() {
+        return critEnd < 0 ? Double.NEGATIVE_INFINITY : lp[critEnd];
+    }
+    private void requireSource() {
+        if (source < 0) throw new IllegalStateException("no source");
+    }
+    /** Current critical path, source task first (empty for an empty DAG). */
+    public int[] criticalPath() {
+        int len = 0;
+        for (int v = critEnd; v != -1; v = lpParent[v]) len++;
+        int[] path = new int[len];
+        for (int v = critEnd, i = len - 1; v != -1; v = lpParent[v], i--) path[i] = v;
+        return path;
+    }
+    /** The DAG with its current weights (a copy). */
+    public CsrGraph snapshot() {
+        return new CsrGraph(n, true, off.clone(), tgt.clone(), w.clone());
+    }
+}
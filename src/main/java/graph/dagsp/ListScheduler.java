@@ -0,0 +1,311 @@
+package graph.dagsp;
+/**
+ * Resource-constrained list scheduling of a DAG's tasks (normally the condensation's
+ * components) on k identical workers.
+ *
+ * Model:
+ *  - task v runs for duration[v] on one worker, without preemption (null: unit durations)
+ *  - an edge u -> v with weight w means v may start at finish[u] + w at the earliest
+ *    (a lag; edgeLags(false) treats every edge as a plain dependency, w = 0)
+ *
+ * Priority is the bottom level, the longest duration + lag chain from the task to a
+ * sink (itself included): b(v) = duration[v] + max over v -> x of w + b(x). It is one
+ * max-DP over the reversed topological order, the longestPathGlobal sweep run backwards
+ * with node durations folded in. Highest b-level goes first; ties go to the smaller id.
+ *
+ * Readiness is Kahn-style: a task is released when its last predecessor finishes, and is
+ * eligible once its lags have elapsed. Tasks are ranked once by (priority, id) with a
+ * radix sort; eligible tasks sit in a 64-ary bitset tree over ranks (a few KB above the
+ * leaf bits stays in cache, where a heap of millions of eligible tasks misses on every
+ * level), released tasks still waiting on a lag and busy workers sit in primitive binary
+ * heaps by time. Whenever a worker is idle and a task is eligible, the task is
+ * dispatched at once (non-insertion list scheduling; without lags Graham's bound
+ * makespan <= total / k + critical path holds). Everything is allocated up front, so
+ * event processing does not allocate: O(m + n log n) time, O(m + n log k) when few
+ * tasks wait on lags.
+ *
+ * Metrics keys (Metrics):
+ *  - "sched_events"      : worker-finish events processed
+ *  - "sched_relaxations" : edges read while releasing successors
+ * Timed phases: "sched_priority", "sched".
+ */
+import graph.scc.TarjanSCC;
+import util.*;
+import java.util.*;
+public class ListScheduler {
+    private static final int EVENTS = Metrics.register("sched_events");
+    private static final int RELAX = Metrics.register("sched_relaxations");
+
+    private int workers = 1;
+    private boolean edgeLags = true;
+
+    /** Number of identical workers (default 1). */
+    public ListScheduler workers(int k) {
+        if (k < 1) throw new IllegalArgumentException("workers must be positive: " + k);
+        workers = k;
+        return this;
+    }
+    /** Whether edge weights delay successors (default true). */
+    public ListScheduler edgeLags(boolean on) {
+        edgeLags = on;
+        return this;
+    }
+
+    /** Start / finish time and worker of every task, plus the makespan. */
+    public static final class Schedule {
+        public final double[] start, finish;
+        /** Bottom level used as priority. */
+        public final double[] priority;
+        public final int[] worker;
+        public final int workers;
+        /** Latest finish time (0 for an empty DAG). */
+        public final double makespan;
+        Schedule(double[] start, double[] finish, double[] priority, int[] worker, int workers, double makespan) {
+            this.start = start;
+            this.finish = finish;
+            this.priority = priority;
+            this.worker = worker;
+            this.workers = workers;
+            this.makespan = makespan;
+        }
+        /** Busy time over workers * makespan (1 for an empty DAG). */
+        public double utilization() {
+            double busy = 0;
+            for (int v = 0; v < start.length; v++) busy += finish[v] - start[v];
+            return makespan == 0 ? 1.0 : busy / (workers * makespan);
+        }
+    }
+
+    /** Duration of each component: the sum of its vertices' durations (null: one per vertex). */
+    public static double[] componentDurations(TarjanSCC.Result scc, double[] vertexDuration) {
+        double[] d = new double[scc.compCount];
+        for (int c = 0; c < scc.compCount; c++) {
+            for (int i = scc.compStart[c]; i < scc.compStart[c + 1]; i++) {
+                d[c] += vertexDuration == null ? 1.0 : vertexDuration[scc.members[i]];
+            }
+        }
+        return d;
+    }
+
+    public Schedule schedule(GraphView dag, List<Integer> topo, double[] duration, Metrics m) {
+        int[] order = new int[topo == null ? 0 : topo.size()];
+        for (int i = 0; i < order.length; i++) order[i] = topo.get(i);
+        return schedule(dag, topo == null ? null : order, duration, m);
+    }
+    public Schedule schedule(GraphView dag, int[] topo, double[] duration, Metrics m) {
+        final int n = dag.vertexCount();
+        if (topo == null || topo.length != n) {
+            throw new IllegalArgumentException("Invalid topological order size: " +
+                    (topo == null ? "null" : topo.length) + " vs dag.n=" + n);
+        }
+        if (duration != null && duration.length != n) {
+            throw new IllegalArgumentException("duration has " + duration.length + " entries for dag.n=" + n);
+        }
+        m.begin("sched_priority");
+        double[] prio = new double[n];
+        int[] indeg = new int[n];
+        for (int i = n - 1; i >= 0; i--) {
+            int u = topo[i];
+            double du = duration == null ? 1.0 : duration[u];
+            if (!(du >= 0)) throw new IllegalArgumentException("Negative or NaN duration for task " + u + ": " + du);
+            double best = 0;
+            for (int e = dag.offset(u), end = dag.offset(u + 1); e < end; e++) {
+                int v = dag.target(e);
+                double w = lag(dag, e);
+                if (!(w >= 0)) throw new IllegalArgumentException("Negative or NaN lag on edge " + u + "->" + v + ": " + w);
+                if (w + prio[v] > best) best = w + prio[v];
+                indeg[v]++;
+            }
+            prio[u] = du + best;
+        }
+        m.end();
+
+        m.begin("sched");
+        // event loop state is indexed by priority rank: tasks dispatch in roughly rank order
+        int[] byRank = byPriority(prio);
+        // task v: state[2v] = rank << 32 | unfinished predecessors, state[2v + 1] = bits of
+        // its earliest start (finish + lag of released predecessors); one cache line per edge
+        long[] state = new long[2 * n];
+        double[] dur = new double[n], startAt = new double[n];
+        int[] workerOf = new int[n];
+        for (int r = 0; r < n; r++) {
+            int v = byRank[r];
+            state[2 * v] = (long) r << 32 | indeg[v];
+            dur[r] = duration == null ? 1.0 : duration[v];
+        }
+        RankQueue eligible = new RankQueue(n);
+        TaskQueue waiting = new TaskQueue(edgeLags ? n : 0);     // rank by release time
+        TaskQueue busy = new TaskQueue(workers);                 // worker by finish time
+        int[] running = new int[workers];
+        int[] idle = new int[workers];
+        int idleCount = 0;
+        for (int k = workers - 1; k >= 0; k--) idle[idleCount++] = k;   // worker 0 on top
+        for (int r = 0; r < n; r++) if (indeg[byRank[r]] == 0) eligible.add(r);
+
+        double now = 0, makespan = 0;
+        long events = 0, relax = 0;
+        int done = 0;
+        while (done < n) {
+            while (!waiting.isEmpty() && waiting.peekKey() <= now) eligible.add(waiting.poll());
+            while (idleCount > 0 && !eligible.isEmpty()) {
+                int r = eligible.poll(), k = idle[--idleCount];
+                startAt[r] = now;
+                workerOf[r] = k;
+                running[k] = r;
+                busy.add(k, now + dur[r]);
+            }
+            // next event: a worker finishing, or (if one is idle) a lag running out
+            boolean lagNext = !waiting.isEmpty() && idleCount > 0
+                    && (busy.isEmpty() || waiting.peekKey() < busy.peekKey());
+            if (lagNext) {
+                now = waiting.peekKey();
+                continue;
+            }
+            if (busy.isEmpty()) throw new IllegalArgumentException("Graph has a cycle: " + (n - done) + " tasks never become ready");
+            now = busy.peekKey();
+            while (!busy.isEmpty() && busy.peekKey() == now) {
+                int k = busy.poll(), u = byRank[running[k]];
+                idle[idleCount++] = k;
+                done++;
+                events++;
+                if (now > makespan) makespan = now;
+                int end = dag.offset(u + 1);
+                relax += end - dag.offset(u);
+                for (int e = dag.offset(u); e < end; e++) {
+                    int v = dag.target(e);
+                    long sv = --state[2 * v];
+                    double rel = Double.longBitsToDouble(state[2 * v + 1]);
+                    if (now + lag(dag, e) > rel) state[2 * v + 1] = Double.doubleToRawLongBits(rel = now + lag(dag, e));
+                    if ((int) sv == 0) {
+                        if (rel <= now) eligible.add((int) (sv >>> 32));
+                        else waiting.add((int) (sv >>> 32), rel);
+                    }
+                }
+            }
+        }
+        double[] start = new double[n], finish = new double[n];
+        int[] worker = new int[n];
+        for (int r = 0; r < n; r++) {
+            int v = byRank[r];
+            start[v] = startAt[r];
+            finish[v] = startAt[r] + dur[r];
+            worker[v] = workerOf[r];
+        }
+        m.add(EVENTS, events);
+        m.add(RELAX, relax);
+        m.end();
+        return new Schedule(start, finish, prio, worker, workers, makespan);
+    }
+
+    // Tasks by priority descending, then id: stable LSD radix sort on the priority bits
+    // (non-negative doubles order like their bit patterns), 16 bits per pass.
+    private static int[] byPriority(double[] prio) {
+        int n = prio.length;
+        int[] ids = new int[n], tmpIds = new int[n];
+        long[] keys = new long[n], tmpKeys = new long[n];
+        for (int v = 0; v < n; v++) {
+            ids[v] = v;
+            keys[v] = ~Double.doubleToRawLongBits(prio[v]);     // complement: descending
+        }
+        int[] count = new int[1 << 16];
+        for (int shift = 0; shift < 64 && n > 0; shift += 16) {
+            Arrays.fill(count, 0);
+            for (int i = 0; i < n; i++) count[(int) (keys[i] >>> shift) & 0xFFFF]++;
+            if (count[(int) (keys[0] >>> shift) & 0xFFFF] == n) continue;     // one digit value: no-op pass
+            for (int d = 0, sum = 0; d < count.length; d++) {
+                int c = count[d];
+                count[d] = sum;
+                sum += c;
+            }
+            for (int i = 0; i < n; i++) {
+                int slot = count[(int) (keys[i] >>> shift) & 0xFFFF]++;
+                tmpIds[slot] = ids[i];
+                tmpKeys[slot] = keys[i];
+            }
+            int[] ti = ids; ids = tmpIds; tmpIds = ti;
+            long[] tk = keys; keys = tmpKeys; tmpKeys = tk;
+        }
+        return ids;
+    }
+
+    // Set of ranks 0..n-1 as a 64-ary bitset tree: level 0 has one bit per rank, each level
+    // above one bit per non-empty word below. add and poll (smallest rank) touch one word
+    // per level; the upper levels are a few KB and stay in cache, unlike a heap of millions.
+    private static final class RankQueue {
+        private final long[][] levels;
+        RankQueue(int n) {
+            int depth = 1;
+            for (int len = Math.max(1, (n + 63) >>> 6); len > 1; len = (len + 63) >>> 6) depth++;
+            levels = new long[depth][];
+            for (int l = 0, len = Math.max(1, (n + 63) >>> 6); l < depth; l++, len = (len + 63) >>> 6) levels[l] = new long[len];
+        }
+        boolean isEmpty() { return levels[levels.length - 1][0] == 0; }
+        void add(int r) {
+            for (long[] level : levels) {
+                int i = r >>> 6;
+                long w = level[i];
+                level[i] = w | 1L << r;
+                if (w != 0) return;         // word was non-empty: the levels above know
+                r = i;
+            }
+        }
+        int poll() {
+            int r = 0;
+            for (int l = levels.length - 1; l >= 0; l--) r = (r << 6) + Long.numberOfTrailingZeros(levels[l][r]);
+            for (int l = 0, i = r; l < levels.length; l++) {
+                int w = i >>> 6;
+                if ((levels[l][w] &= ~(1L << i)) != 0) break;
+                i = w;
+            }
+            return r;
+        }
+    }
+
+    // Binary min-heap of (time, item) pairs stored inline in the slots.
+    private static final class TaskQueue {
+        private final double[] keys;
+        private final int[] items;
+        private int size;
+        TaskQueue(int capacity) {
+            keys = new double[capacity];
+            items = new int[capacity];
+        }
+        boolean isEmpty() { return size == 0; }
+        double peekKey() { return keys[0]; }
+        void add(int item, double key) {
+            int i = size++;
+            while (i > 0) {
+                int p = (i - 1) >>> 1;
+                if (!less(key, item, keys[p], items[p])) break;
+                keys[i] = keys[p];
+                items[i] = items[p];
+                i = p;
+            }
+            keys[i] = key;
+            items[i] = item;
+        }
+        int poll() {
+            int top = items[0];
+            double key = keys[--size];
+            int item = items[size], i = 0, half = size >>> 1;
+            while (i < half) {
+                int c = 2 * i + 1, r = c + 1;
+                if (r < size && less(keys[r], items[r], keys[c], items[c])) c = r;
+                if (!less(keys[c], items[c], key, item)) break;
+                keys[i] = keys[c];
+                items[i] = items[c];
+                i = c;
+            }
+            keys[i] = key;
+            items[i] = item;
+            return top;
+        }
+        private static boolean less(double ka, int a, double kb, int b) {
+            return ka < kb || (ka == kb && a < b);
+        }
+    }
+
+    private double lag(GraphView dag, int e) {
+        return edgeLags ? dag.weight(e) : 0.0;
+    }
+}
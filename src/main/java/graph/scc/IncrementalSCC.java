@@ -0,0 +1,360 @@
+package graph.scc;
+import util.CsrGraph;
+import util.GraphView;
+import util.Metrics;
+import java.util.Arrays;
+/**
+ * Maintains SCCs, the condensation DAG and a topological order of components
+ * under edge insertions (Pearce–Kelly dynamic topological sort extended with merges).
+ *
+ * For an inserted edge u -> v between components a = comp(u), b = comp(v):
+ *  - a == b or ord(a) < ord(b): the order stays valid, O(1).
+ *  - otherwise only the affected region ord(b) .. ord(a) is searched: forward from b
+ *    (F) and backward from a (B). If F reaches a, the edge closes a cycle and every
+ *    component in F ∩ B is merged into one. The components of B, the merged one
+ *    (if any) and F are then re-placed, in that order, onto the positions they held.
+ * Per-update cost is proportional to the edges of the affected region, not to the graph:
+ * a repeated a -> b insert is skipped, and a merge rewrites the survivor's adjacency
+ * to live ids, dropping edges that became internal and duplicates.
+ *
+ * Component ids are ids of the initial Tarjan components; a merged component keeps
+ * the id of one of its parts. Dense snapshots are available via result()/condensation().
+ */
+public class IncrementalSCC {
+    private final int n;
+    private final int[] initialComp;     // vertex -> initial component
+    private final int[] parent;          // union-find over component ids
+    private final int[] ord;             // component -> topo position
+    private final int[] atPos;           // topo position -> component, -1 for a hole
+    private final int[] head, tail, next, size;  // member lists (linked through vertices)
+    private final int[][] outT, inT;
+    private final double[][] outW;
+    private final int[] outLen, inLen;
+    private int live;
+
+    // Search scratch (stamped, so it is never cleared).
+    private final int[] markF, markB;
+    private int epoch;
+    private final int[] seen;            // union(): stamp of the last list a component was added to
+    private int seenStamp;
+    private int[] stack, listF, listB;
+    private int lastAffected;
+
+    /** Builds the initial state with Tarjan: component c gets position compCount - 1 - c. */
+    public IncrementalSCC(GraphView g) {
+        TarjanSCC scc = new TarjanSCC();
+        TarjanSCC.Result r = scc.findSCCs(g, new Metrics());
+        CsrGraph dag = scc.buildCondensation(g, r);
+        int c = r.compCount;
+        n = g.vertexCount();
+        initialComp = r.compOf.clone();
+        parent = new int[c];
+        ord = new int[c];
+        atPos = new int[c];
+        head = new int[c];
+        tail = new int[c];
+        size = new int[c];
+        next = new int[n];
+        outT = new int[c][];
+        inT = new int[c][];
+        outW = new double[c][];
+        outLen = new int[c];
+        inLen = new int[c];
+        int[] indeg = new int[c];
+        for (int e = 0; e < dag.edgeCount(); e++) indeg[dag.target(e)]++;
+        for (int x = 0; x < c; x++) {
+            parent[x] = x;
+            ord[x] = c - 1 - x;
+            atPos[c - 1 - x] = x;
+            int d = dag.outDegree(x);
+            outT[x] = new int[Math.max(d, 2)];
+            outW[x] = new double[Math.max(d, 2)];
+            for (int e = dag.offset(x), k = 0; k < d; e++, k++) {
+                outT[x][k] = dag.target(e);
+                outW[x][k] = dag.weight(e);
+            }
+            outLen[x] = d;
+            inT[x] = new int[Math.max(indeg[x], 2)];
+        }
+        for (int x = 0; x < c; x++) {
+            for (int k = 0; k < outLen[x]; k++) {
+                int y = outT[x][k];
+                inT[y][inLen[y]++] = x;
+            }
+        }
+        for (int x = 0; x < c; x++) {
+            int last = -1;
+            tail[x] = r.members[r.compStart[x + 1] - 1];
+            for (int i = r.compStart[x + 1] - 1; i >= r.compStart[x]; i--) {
+                int v = r.members[i];
+                next[v] = last;
+                last = v;
+            }
+            head[x] = last;
+            size[x] = r.componentSize(x);
+        }
+        live = c;
+        markF = new int[c];
+        markB = new int[c];
+        seen = new int[c];
+        stack = new int[16];
+        listF = new int[16];
+        listB = new int[16];
+    }
+
+    /** Number of vertices. */
+    public int vertexCount() { return n; }
+    /** Current number of components. */
+    public int componentCount() { return live; }
+    /** Current component of vertex v. */
+    public int compOf(int v) { return find(initialComp[v]); }
+    /** True if u and v are in the same SCC. */
+    public boolean sameComponent(int u, int v) { return compOf(u) == compOf(v); }
+    /** Topo position of component c (positions are increasing along edges, not dense). */
+    public int position(int c) { return ord[find(c)]; }
+    /** Number of vertices in component c. */
+    public int componentSize(int c) { return size[find(c)]; }
+    /** Number of components searched by the last insertEdge (0 for O(1) inserts). */
+    public int lastAffected() { return lastAffected; }
+
+    /**
+     * Inserts edge u -> v with weight w. Returns true if the edge closed a cycle,
+     * i.e. two or more components were merged.
+     */
+    public boolean insertEdge(int u, int v, double w) {
+        lastAffected = 0;
+        int a = compOf(u), b = compOf(v);
+        if (a == b || hasOut(a, b)) return false;     // an existing a -> b already orders a before b
+        addOut(a, b, w);
+        addIn(b, a);
+        if (ord[a] < ord[b]) return false;
+
+        int lb = ord[b], ub = ord[a];
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(markF, 0);
+            Arrays.fill(markB, 0);
+            epoch = 1;
+        }
+        int nf = search(b, ub, true);
+        boolean cycle = markF[a] == epoch;
+        int nb = search(a, lb, false);
+        lastAffected = nf + nb;
+        sortByOrd(listF, nf);
+        sortByOrd(listB, nb);
+
+        // Pool of freed positions (F and B overlap exactly in the merged set).
+        int[] pos = new int[nf + nb];
+        int np = 0;
+        for (int i = 0; i < nf; i++) pos[np++] = ord[listF[i]];
+        for (int i = 0; i < nb; i++) if (markF[listB[i]] != epoch) pos[np++] = ord[listB[i]];
+        Arrays.sort(pos, 0, np);
+        for (int i = 0; i < np; i++) atPos[pos[i]] = -1;
+
+        int merged = -1;
+        if (cycle) {
+            for (int i = 0; i < nf; i++) {
+                int x = listF[i];
+                if (markB[x] == epoch) merged = merged == -1 ? x : union(merged, x);
+            }
+        }
+        // B only moves down and F only moves up (as in Pearce–Kelly): B \ M takes the lowest
+        // positions, F \ M the highest, the merged component the next one after B \ M.
+        // The |M| - 1 positions left over become holes.
+        int p = 0;
+        for (int i = 0; i < nb; i++) {
+            int x = listB[i];
+            if (markF[x] != epoch) place(x, pos[p++]);
+        }
+        if (merged != -1) place(merged, pos[p]);
+        int fOnly = 0;
+        for (int i = 0; i < nf; i++) if (markB[listF[i]] != epoch) fOnly++;
+        p = np - fOnly;
+        for (int i = 0; i < nf; i++) {
+            int x = listF[i];
+            if (markB[x] != epoch) place(x, pos[p++]);
+        }
+        return cycle;
+    }
+
+    /** Current components in topological order. */
+    public int[] topoOrder() {
+        int[] out = new int[live];
+        int k = 0;
+        for (int c : atPos) if (c != -1) out[k++] = c;
+        return out;
+    }
+
+    /**
+     * Dense snapshot of the current SCCs. Components are numbered in topological
+     * order (unlike TarjanSCC, which numbers them in reverse topological order).
+     */
+    public TarjanSCC.Result result() {
+        int[] dense = denseIds();
+        int[] compStart = new int[live + 1];
+        int[] members = new int[n];
+        int[] compOf = new int[n];
+        int k = 0;
+        for (int c : atPos) {
+            if (c == -1) continue;
+            int id = dense[c];
+            compStart[id] = k;
+            for (int v = head[c]; v != -1; v = next[v]) {
+                members[k++] = v;
+                compOf[v] = id;
+            }
+        }
+        compStart[live] = k;
+        return new TarjanSCC.Result(members, compStart, compOf, live);
+    }
+
+    /**
+     * Condensation DAG over the dense ids of result(); parallel edges keep the first weight.
+     */
+    public CsrGraph condensation() {
+        int[] dense = denseIds();
+        int total = 0;
+        for (int c : atPos) if (c != -1) total += outLen[c];
+        int[] from = new int[total], to = new int[total];
+        double[] w = new double[total];
+        int[] seen = new int[live];
+        Arrays.fill(seen, -1);
+        int m = 0;
+        for (int c : atPos) {
+            if (c == -1) continue;
+            int a = dense[c];
+            for (int k = 0; k < outLen[c]; k++) {
+                int b = dense[find(outT[c][k])];
+                if (b == a || seen[b] == a) continue;
+                seen[b] = a;
+                from[m] = a; to[m] = b; w[m] = outW[c][k];
+                m++;
+            }
+        }
+        return CsrGraph.fromEdges(live, true, m, from, to, w);
+    }
+
+    // DFS over the affected region: forward from s through ord <= bound, or backward through ord >= bound.
+    private int search(int s, int bound, boolean forward) {
+        int[] mark = forward ? markF : markB;
+        int[] list = forward ? listF : listB;
+        int count = 0, sp = 0;
+        mark[s] = epoch;
+        stack[sp++] = s;
+        while (sp > 0) {
+            int x = stack[--sp];
+            if (count == list.length) list = Arrays.copyOf(list, count * 2);
+            list[count++] = x;
+            int[] adj = forward ? outT[x] : inT[x];
+            int len = forward ? outLen[x] : inLen[x];
+            for (int k = 0; k < len; k++) {
+                int y = find(adj[k]);
+                if (y == x || mark[y] == epoch) continue;
+                if (forward ? ord[y] > bound : ord[y] < bound) continue;
+                mark[y] = epoch;
+                if (sp == stack.length) stack = Arrays.copyOf(stack, sp * 2);
+                stack[sp++] = y;
+            }
+        }
+        if (forward) listF = list; else listB = list;
+        return count;
+    }
+
+    private void sortByOrd(int[] list, int len) {
+        // Sort by position: pack (ord, id) into longs to sort primitives.
+        long[] keys = new long[len];
+        for (int i = 0; i < len; i++) keys[i] = ((long) ord[list[i]] << 32) | list[i];
+        Arrays.sort(keys);
+        for (int i = 0; i < len; i++) list[i] = (int) keys[i];
+    }
+
+    private void place(int c, int p) {
+        ord[c] = p;
+        atPos[p] = c;
+    }
+
+    // Merges the smaller of two live components into the larger; returns the survivor.
+    // The survivor's lists are rebuilt over live ids: edges now internal to x and repeated
+    // neighbours are dropped (the first weight of a repeated out-edge is kept).
+    private int union(int x, int y) {
+        if (outLen[x] + inLen[x] < outLen[y] + inLen[y]) { int t = x; x = y; y = t; }
+        parent[y] = x;
+        int[] out = new int[Math.max(outLen[x] + outLen[y], 2)];
+        double[] outWt = new double[out.length];
+        int len = 0;
+        nextStamp();
+        for (int c : new int[] {x, y}) {
+            for (int k = 0; k < outLen[c]; k++) {
+                int t = find(outT[c][k]);
+                if (t == x || seen[t] == seenStamp) continue;
+                seen[t] = seenStamp;
+                outWt[len] = outW[c][k];
+                out[len++] = t;
+            }
+        }
+        outT[x] = out;
+        outW[x] = outWt;
+        outLen[x] = len;
+        int[] in = new int[Math.max(inLen[x] + inLen[y], 2)];
+        len = 0;
+        nextStamp();
+        for (int c : new int[] {x, y}) {
+            for (int k = 0; k < inLen[c]; k++) {
+                int t = find(inT[c][k]);
+                if (t == x || seen[t] == seenStamp) continue;
+                seen[t] = seenStamp;
+                in[len++] = t;
+            }
+        }
+        inT[x] = in;
+        inLen[x] = len;
+        outT[y] = inT[y] = null;
+        outW[y] = null;
+        outLen[y] = inLen[y] = 0;
+        next[tail[x]] = head[y];
+        tail[x] = tail[y];
+        size[x] += size[y];
+        live--;
+        return x;
+    }
+
+    private void nextStamp() {
+        if (++seenStamp == Integer.MAX_VALUE) {
+            Arrays.fill(seen, 0);
+            seenStamp = 1;
+        }
+    }
+
+    private boolean hasOut(int a, int b) {
+        for (int k = 0; k < outLen[a]; k++) if (find(outT[a][k]) == b) return true;
+        return false;
+    }
+
+    private int find(int c) {
+        while (parent[c] != c) {
+            parent[c] = parent[parent[c]];
+            c = parent[c];
+        }
+        return c;
+    }
+
+    private int[] denseIds() {
+        int[] dense = new int[parent.length];
+        int k = 0;
+        for (int c : atPos) if (c != -1) dense[c] = k++;
+        return dense;
+    }
+
+    private void addOut(int a, int b, double w) {
+        if (outLen[a] == outT[a].length) {
+            outT[a] = Arrays.copyOf(outT[a], outLen[a] * 2);
+            outW[a] = Arrays.copyOf(outW[a], outLen[a] * 2);
+        }
+        outW[a][outLen[a]] = w;
+        outT[a][outLen[a]++] = b;
+    }
+
+    private void addIn(int b, int a) {
+        if (inLen[b] == inT[b].length) inT[b] = Arrays.copyOf(inT[b], inLen[b] * 2);
+        inT[b][inLen[b]++] = a;
+    }
+}
@@ -0,0 +1,16 @@
+package graph.scc;
+/**
+ * Weight kept when several original edges collapse into one condensation edge a -> b.
+ */
+public enum ParallelEdgePolicy {
+    /**
+     * Weight of the first such edge by tail vertex id, then adjacency order. This is not
+     * global input order: the CSR keeps edge order only within each vertex, so u -> x read
+     * after v -> x (u < v, same components) wins.
+     */
+    FIRST,
+    /** Smallest weight: exact for shortest-path queries on the condensation. */
+    MIN,
+    /** Largest weight: exact for longest (critical) path queries on the condensation. */
+    MAX
+}
@@ -0,0 +1,251 @@
+package graph.scc;
+import util.GraphView;
+import util.Metrics;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+/**
+ * Parallel SCC decomposition (forward-backward with trimming) on ForkJoin.
+ *
+ *  1. Trim: vertices with no remaining in- or out-edges are singleton SCCs; removal repeats
+ *     until no such vertex is left (this peels off chains and tree-like parts).
+ *  2. Forward-backward: for a vertex set S and pivot p, FW(p) ∩ BW(p) is an SCC and every
+ *     other SCC lies entirely in FW \ BW, BW \ FW or S \ (FW ∪ BW); the three parts are
+ *     solved as independent ForkJoin tasks. Small parts fall back to a sequential Tarjan
+ *     restricted to the part, and so do parts reached after STALL_LIMIT splits in a row
+ *     that each removed less than 1/SHRINK of the set (e.g. a long chain of SCCs, which
+ *     would otherwise peel off one SCC per level).
+ *
+ * Component ids are renumbered by smallest member vertex, so the output is deterministic
+ * (but, unlike TarjanSCC, not in reverse topological order).
+ * Metrics: "pscc_trimmed" (singletons removed by trimming), "pscc_tasks" (FW-BW splits).
+ */
+public class ParallelSCC implements SccAlgorithm {
+    private static final int TRIMMED = Metrics.register("pscc_trimmed");
+    private static final int TASKS = Metrics.register("pscc_tasks");
+    /** Parts at or below this size are solved by sequential Tarjan. */
+    static final int SEQUENTIAL_THRESHOLD = 4096;
+    /** A split "stalls" when its largest part keeps more than 1 - 1/SHRINK of the set. */
+    static final int SHRINK = 16;
+    /** Consecutive stalled splits after which a part is solved by sequential Tarjan. */
+    static final int STALL_LIMIT = 4;
+
+    private final ForkJoinPool pool;
+    public ParallelSCC() {
+        this(ForkJoinPool.commonPool());
+    }
+    public ParallelSCC(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public TarjanSCC.Result findSCCs(GraphView g, Metrics m) {
+        m.begin("scc");
+        Run run = new Run(g, g.transpose());
+        int[] rest = run.trim();
+        m.add(TRIMMED, g.vertexCount() - rest.length);
+        if (rest.length > 0) pool.invoke(run.new Split(run.colors.getAndIncrement(), rest, 0));
+        m.add(TASKS, run.splits.get());
+        TarjanSCC.Result r = run.canonical();
+        m.end();
+        return r;
+    }
+
+    // Shared state of one decomposition. Parts own disjoint vertex sets, so per-vertex
+    // arrays are written by one task only; color ids are never reused, so a task reading
+    // a neighbour owned by another task can never mistake it for one of its own.
+    private static final class Run {
+        final GraphView g, gt;
+        final int n;
+        final int[] color, fw, bw, compOf, disc, low;
+        /** BFS queue links (next vertex in the queue); a part only links its own vertices. */
+        final int[] link;
+        final AtomicInteger colors = new AtomicInteger(1);
+        final AtomicInteger comps = new AtomicInteger();
+        final AtomicInteger splits = new AtomicInteger();
+
+        Run(GraphView g, GraphView gt) {
+            this.g = g;
+            this.gt = gt;
+            this.n = g.vertexCount();
+            color = new int[n];
+            fw = new int[n];
+            bw = new int[n];
+            compOf = new int[n];
+            disc = new int[n];
+            low = new int[n];
+            link = new int[n];
+            Arrays.fill(compOf, -1);
+            Arrays.fill(disc, -1);
+        }
+
+        // Repeatedly removes vertices with zero in- or out-degree; returns the survivors.
+        int[] trim() {
+            int[] in = new int[n], out = new int[n];
+            for (int v = 0; v < n; v++) {
+                out[v] = g.outDegree(v);
+                in[v] = g.inDegree(v);
+            }
+            int[] q = new int[n];
+            int head = 0, tail = 0;
+            for (int v = 0; v < n; v++) {
+                if (in[v] == 0 || out[v] == 0) {
+                    compOf[v] = comps.getAndIncrement();
+                    q[tail++] = v;
+                }
+            }
+            while (head < tail) {
+                int v = q[head++];
+                for (int e = g.offset(v), end = g.offset(v + 1); e < end; e++) {
+                    int w = g.target(e);
+                    if (compOf[w] == -1 && --in[w] == 0) {
+                        compOf[w] = comps.getAndIncrement();
+                        q[tail++] = w;
+                    }
+                }
+                for (int e = gt.offset(v), end = gt.offset(v + 1); e < end; e++) {
+                    int w = gt.target(e);
+                    if (compOf[w] == -1 && --out[w] == 0) {
+                        compOf[w] = comps.getAndIncrement();
+                        q[tail++] = w;
+                    }
+                }
+            }
+            int[] rest = new int[n - tail];
+            for (int v = 0, k = 0; v < n; v++) if (compOf[v] == -1) rest[k++] = v;
+            return rest;
+        }
+
+        final class Split extends RecursiveAction {
+            private static final long serialVersionUID = 1L;
+            private final int c;
+            private final int[] vs;
+            private final int stalls;
+            Split(int c, int[] vs, int stalls) {
+                this.c = c;
+                this.vs = vs;
+                this.stalls = stalls;
+                for (int v : vs) color[v] = c;
+            }
+            @Override
+            protected void compute() {
+                if (vs.length <= SEQUENTIAL_THRESHOLD || stalls >= STALL_LIMIT) {
+                    tarjan(c, vs);
+                    return;
+                }
+                splits.incrementAndGet();
+                int pivot = vs[0];
+                reach(g, pivot, fw);
+                reach(gt, pivot, bw);
+                int scc = comps.getAndIncrement();
+                int nf = 0, nb = 0, nr = 0;
+                for (int v : vs) {
+                    boolean f = fw[v] == c, b = bw[v] == c;
+                    if (f && b) compOf[v] = scc;
+                    else if (f) nf++;
+                    else if (b) nb++;
+                    else nr++;
+                }
+                int[] fOnly = new int[nf], bOnly = new int[nb], rest = new int[nr];
+                nf = nb = nr = 0;
+                for (int v : vs) {
+                    boolean f = fw[v] == c, b = bw[v] == c;
+                    if (f && b) continue;
+                    if (f) fOnly[nf++] = v;
+                    else if (b) bOnly[nb++] = v;
+                    else rest[nr++] = v;
+                }
+                int largest = Math.max(nf, Math.max(nb, nr));
+                int next = largest > vs.length - vs.length / SHRINK ? stalls + 1 : 0;
+                invokeAll(new Split(colors.getAndIncrement(), fOnly, next),
+                          new Split(colors.getAndIncrement(), bOnly, next),
+                          new Split(colors.getAndIncrement(), rest, next));
+            }
+            // BFS from s over vertices of this part, stamping mark[] with the part color.
+            // The queue is threaded through link[], so a split allocates no scratch.
+            private void reach(GraphView h, int s, int[] mark) {
+                mark[s] = c;
+                int u = s, tail = s;
+                link[s] = -1;
+                while (u != -1) {
+                    for (int e = h.offset(u), end = h.offset(u + 1); e < end; e++) {
+                        int w = h.target(e);
+                        if (color[w] == c && mark[w] != c) {
+                            mark[w] = c;
+                            link[w] = -1;
+                            link[tail] = w;
+                            tail = w;
+                        }
+                    }
+                    u = link[u];
+                }
+            }
+        }
+
+        // Iterative Tarjan on the subgraph induced by color c (same scheme as TarjanSCC).
+        void tarjan(int c, int[] vs) {
+            int k = vs.length;
+            int[] stack = new int[k], call = new int[k];
+            int[] slot = new int[k];     // call-stack frame -> next edge
+            int sp = 0, cp = 0, timer = 0;
+            for (int root : vs) {
+                if (disc[root] != -1) continue;
+                disc[root] = low[root] = timer++;
+                stack[sp++] = root;
+                slot[cp] = g.offset(root);
+                call[cp++] = root;
+                while (cp > 0) {
+                    int v = call[cp - 1];
+                    int e = slot[cp - 1];
+                    if (e < g.offset(v + 1)) {
+                        slot[cp - 1] = e + 1;
+                        int to = g.target(e);
+                        if (color[to] != c) continue;
+                        if (disc[to] == -1) {
+                            disc[to] = low[to] = timer++;
+                            stack[sp++] = to;
+                            slot[cp] = g.offset(to);
+                            call[cp++] = to;
+                        } else if (compOf[to] == -1) {
+                            low[v] = Math.min(low[v], disc[to]);
+                        }
+                        continue;
+                    }
+                    cp--;
+                    if (low[v] == disc[v]) {
+                        int id = comps.getAndIncrement(), u;
+                        do {
+                            u = stack[--sp];
+                            compOf[u] = id;
+                        } while (u != v);
+                    }
+                    if (cp > 0) {
+                        int parent = call[cp - 1];
+                        low[parent] = Math.min(low[parent], low[v]);
+                    }
+                }
+            }
+        }
+
+        // Renumbers components by smallest member and groups members (ascending) per component.
+        TarjanSCC.Result canonical() {
+            int count = comps.get();
+            int[] remap = new int[count];
+            Arrays.fill(remap, -1);
+            int[] compStart = new int[count + 1];
+            int next = 0;
+            for (int v = 0; v < n; v++) {
+                int c = compOf[v];
+                if (remap[c] == -1) remap[c] = next++;
+                compOf[v] = remap[c];
+                compStart[compOf[v] + 1]++;
+            }
+            for (int c = 0; c < count; c++) compStart[c + 1] += compStart[c];
+            int[] fill = Arrays.copyOf(compStart, count);
+            int[] members = new int[n];
+            for (int v = 0; v < n; v++) members[fill[compOf[v]]++] = v;
+            return new TarjanSCC.Result(members, compStart, compOf, count);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package graph.scc;
+import util.GraphView;
+import util.Metrics;
+/**
+ * Strongly connected components engine; all engines return the same Result shape,
+ * so buildCondensation and downstream code work with any of them.
+ */
+public interface SccAlgorithm {
+    TarjanSCC.Result findSCCs(GraphView g, Metrics m);
+
+    /** Engine by name: "tarjan" (sequential, default) or "parallel" (forward-backward). */
+    static SccAlgorithm byName(String name) {
+        switch (name == null ? "tarjan" : name) {
+            case "tarjan": return new TarjanSCC();
+            case "parallel": return new ParallelSCC();
+            default: throw new IllegalArgumentException("Unknown SCC engine: " + name);
+        }
+    }
+}
@@ -1,110 +1,271 @@
 package graph.scc;
-import util.Edge;
-import util.Graph;
+import util.CsrGraph;
+import util.GraphView;
 import util.Metrics;
-import java.util.ArrayDeque;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Deque;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
 /**
  * Tarjan's algorithm for Strongly Connected Components (SCC).
+ * Iterative (explicit call stack), so deep dependency chains do not overflow the thread stack.
  * Provides vertex->component map and a method to build the condensation DAG.
  */
-public class TarjanSCC {
-    /** Result bundle for SCC computation. */
+public class TarjanSCC implements SccAlgorithm {
+    private static final int DFS_CALLS = Metrics.register("scc_dfs_calls");
+    private static final int DFS_EDGES = Metrics.register("scc_dfs_edges");
+    /**
+     * Result bundle for SCC computation.
+     * Components are stored flat: members of component c are
+     * members[compStart[c] .. compStart[c + 1]), in the order Tarjan popped them.
+     */
     public static class Result {
-        public final List<List<Integer>> components;
+        public final int[] members;
+        public final int[] compStart;
         public final int[] compOf;
         public final int compCount;
-        public Result(List<List<Integer>> components, int[] compOf, int compCount) {
-            this.components = components;
+        public Result(int[] members, int[] compStart, int[] compOf, int compCount) {
+            this.members = members;
+            this.compStart = compStart;
             this.compOf = compOf;
             this.compCount = compCount;
         }
+        /** Number of vertices in component c. */
+        public int componentSize(int c) {
+            return compStart[c + 1] - compStart[c];
+        }
+        /** Copy of the vertices of component c. */
+        public int[] component(int c) {
+            return Arrays.copyOfRange(members, compStart[c], compStart[c + 1]);
+        }
+        /** Groups vertices by a given vertex -> component map (members ascending per component). */
+        public static Result fromCompOf(int[] compOf, int compCount) {
+            int[] compStart = new int[compCount + 1];
+            for (int c : compOf) compStart[c + 1]++;
+            for (int c = 0; c < compCount; c++) compStart[c + 1] += compStart[c];
+            int[] fill = Arrays.copyOf(compStart, compCount);
+            int[] members = new int[compOf.length];
+            for (int v = 0; v < compOf.length; v++) members[fill[compOf[v]]++] = v;
+            return new Result(members, compStart, compOf, compCount);
+        }
+    }
+
+    /**
+     * Output of the fused pipeline: SCCs, a topological order of the components and,
+     * if requested, the condensation DAG.
+     */
+    public static final class Pipeline {
+        public final Result scc;
+        /** Components in topological order: compCount - 1, ..., 0. */
+        public final int[] topo;
+        /** Same graph as buildCondensation(g, scc, policy), built during the DFS; null if not requested. */
+        public final CsrGraph condensation;
+        Pipeline(Result scc, int[] topo, CsrGraph condensation) {
+            this.scc = scc;
+            this.topo = topo;
+            this.condensation = condensation;
+        }
     }
 
-    private int timer;
-    private int[] disc, low, compOf;
-    private boolean[] on;
-    private Deque<Integer> stack;
-    private List<List<Integer>> comps;
-    private Metrics metrics;
     /**
      * Finds SCCs in a directed graph. Instrumented with DFS visit/edge counters.
      */
-    public Result findSCCs(Graph g, Metrics m) {
-        this.metrics = m;
-        int n = g.n;
-        timer = 0;
-        disc = new int[n];
-        low = new int[n];
+    @Override
+    public Result findSCCs(GraphView g, Metrics m) {
+        return run(g, null, m);
+    }
+    // Tarjan's DFS; if rows != null, each component's condensation row is written as it is popped.
+    private Result run(GraphView g, Rows rows, Metrics m) {
+        final int n = g.vertexCount();
+        int[] disc = new int[n];
+        int[] low = new int[n];
+        int[] compOf = new int[n];
         Arrays.fill(disc, -1);
-        Arrays.fill(low, -1);
-        compOf = new int[n];
         Arrays.fill(compOf, -1);
+        int[] stack = new int[n];    // Tarjan stack; visited && compOf == -1 <=> on stack
+        int[] call = new int[n];     // explicit DFS call stack
+        int[] next = new int[n];     // next edge to scan for each vertex on the call stack
+        int[] members = new int[n];
+        int[] compStart = new int[n + 1];
+        int sp = 0, cp = 0, timer = 0, comps = 0, filled = 0;
+        long calls = 0, edges = 0;
 
-        on = new boolean[n];
-        stack = new ArrayDeque<>();
-        comps = new ArrayList<>();
-
-        m.start();
-        for (int v = 0; v < n; v++) {
-            if (disc[v] == -1) {
-                dfs(g, v);
+        m.begin("scc");
+        for (int root = 0; root < n; root++) {
+            if (disc[root] != -1) continue;
+            disc[root] = low[root] = timer++;
+            stack[sp++] = root;
+            next[root] = g.offset(root);
+            call[cp++] = root;
+            calls++;
+            while (cp > 0) {
+                int v = call[cp - 1];
+                int e = next[v];
+                if (e < g.offset(v + 1)) {
+                    next[v] = e + 1;
+                    edges++;
+                    int to = g.target(e);
+                    if (disc[to] == -1) {
+                        // "Recursive call": push to and continue from its first edge.
+                        disc[to] = low[to] = timer++;
+                        stack[sp++] = to;
+                        next[to] = g.offset(to);
+                        call[cp++] = to;
+                        calls++;
+                    } else if (compOf[to] == -1) {
+                        low[v] = Math.min(low[v], disc[to]);
+                    }
+                    continue;
+                }
+                // All edges of v scanned: "return" to the caller.
+                cp--;
+                // Root of an SCC reached -> pop stack until v.
+                if (low[v] == disc[v]) {
+                    compStart[comps] = filled;
+                    int u;
+                    do {
+                        u = stack[--sp];
+                        compOf[u] = comps;
+                        members[filled++] = u;
+                    } while (u != v);
+                    if (rows != null) rows.emit(g, compOf, members, compStart[comps], filled, comps);
+                    comps++;
+                }
+                if (cp > 0) {
+                    int parent = call[cp - 1];
+                    low[parent] = Math.min(low[parent], low[v]);
+                }
             }
         }
-        m.stop();
-        return new Result(comps, compOf, comps.size());
+        compStart[comps] = filled;
+        m.add(DFS_CALLS, calls);
+        m.add(DFS_EDGES, edges);
+        m.end();
+        return new Result(members, Arrays.copyOf(compStart, comps + 1), compOf, comps);
+    }
+    /**
+     * SCCs plus a topological order of the components and, if requested, the condensation,
+     * all in one DFS. Tarjan finishes a component only after every component reachable
+     * from it, so ids are a reverse topological order, and when a component is popped
+     * every head of its out-edges already has its final id: the pop loop writes the
+     * component's CSR row right there (members visited by vertex id, so rows and kept
+     * weights equal buildCondensation's).
+     */
+    public Pipeline findSCCsWithOrder(GraphView g, boolean withCondensation, ParallelEdgePolicy policy, Metrics m) {
+        Rows rows = withCondensation ? new Rows(g.vertexCount(), g.edgeCount(), policy) : null;
+        Result r = run(g, rows, m);
+        int c = r.compCount;
+        int[] topo = new int[c];
+        for (int i = 0; i < c; i++) topo[i] = c - 1 - i;
+        return new Pipeline(r, topo, rows == null ? null : rows.toCsr(c));
     }
-    // DFS with discovery/low-link values and on-stack marking.
-    private void dfs(Graph g, int v) {
-        disc[v] = low[v] = timer++;
-        stack.push(v);
-        on[v] = true;
-        metrics.inc("scc_dfs_calls");
-        for (Edge e : g.adj.get(v)) {
-            metrics.inc("scc_dfs_edges");
-            int to = e.to;
 
-            if (disc[to] == -1) {
-                dfs(g, to);
-                low[v] = Math.min(low[v], low[to]);
-            } else if (on[to]) {
-                low[v] = Math.min(low[v], disc[to]);
-            }
+    // Condensation CSR filled one component (row) at a time, in component id order.
+    private static final class Rows {
+        final ParallelEdgePolicy policy;
+        final int[] off, tgt, last, slot, sorted;
+        final double[] wt;
+        int k;
+        Rows(int n, int m, ParallelEdgePolicy policy) {
+            this.policy = policy;
+            off = new int[n + 1];
+            tgt = new int[m];
+            wt = new double[m];
+            last = new int[n];
+            slot = new int[n];
+            sorted = new int[n];
+            Arrays.fill(last, -1);
         }
-        // Root of an SCC reached -> pop stack until v.
-        if (low[v] == disc[v]) {
-            List<Integer> comp = new ArrayList<>();
-            while (true) {
-                int u = stack.pop();
-                on[u] = false;
-                compOf[u] = comps.size();
-                comp.add(u);
-                if (u == v) break;
+        // Row of component a, whose members are members[from .. to).
+        void emit(GraphView g, int[] compOf, int[] members, int from, int to, int a) {
+            int len = to - from;
+            System.arraycopy(members, from, sorted, 0, len);
+            if (len > 1) Arrays.sort(sorted, 0, len);
+            for (int i = 0; i < len; i++) {
+                int u = sorted[i];
+                for (int e = g.offset(u), end = g.offset(u + 1); e < end; e++) {
+                    int b = compOf[g.target(e)];
+                    if (b == a) continue;
+                    double w = g.weight(e);
+                    if (last[b] != a) {
+                        last[b] = a;
+                        slot[b] = k;
+                        tgt[k] = b;
+                        wt[k++] = w;
+                    } else if (policy == ParallelEdgePolicy.MIN ? w < wt[slot[b]]
+                            : policy == ParallelEdgePolicy.MAX && w > wt[slot[b]]) {
+                        wt[slot[b]] = w;
+                    }
+                }
             }
-            comps.add(comp);
+            off[a + 1] = k;
+        }
+        CsrGraph toCsr(int c) {
+            return new CsrGraph(c, true, Arrays.copyOf(off, c + 1),
+                    k == tgt.length ? tgt : Arrays.copyOf(tgt, k),
+                    k == wt.length ? wt : Arrays.copyOf(wt, k));
         }
     }
     /**
-     * Builds the condensation DAG (each SCC becomes a node; parallel edges deduplicated).
+     * Builds the condensation DAG (each SCC becomes a node; parallel edges deduplicated,
+     * keeping the weight of the first by tail vertex id, see ParallelEdgePolicy.FIRST).
      */
-    public Graph buildCondensation(Graph g, Result r) {
-        Graph dag = new Graph(r.compCount, true);
-        Set<Long> seen = new HashSet<>();
-        for (Edge e : g.edges) {
-            int a = r.compOf[e.from];
-            int b = r.compOf[e.to];
-            if (a == b) continue;
-
-            long key = (((long) a) << 32) ^ b;
-            if (seen.add(key)) {
-                dag.addEdge(a, b, e.weight);
+    public CsrGraph buildCondensation(GraphView g, Result r) {
+        return buildCondensation(g, r, ParallelEdgePolicy.FIRST);
+    }
+    /**
+     * Builds the condensation DAG directly in CSR form, merging parallel edges by policy.
+     * Inter-component edges are bucketed by tail component with a counting sort, then
+     * deduplicated per bucket with a stamp array (last[b] == a means a -> b already kept),
+     * so no per-edge objects or hashing are needed. Edges of each component keep the order
+     * in which their heads first appear.
+     */
+    public CsrGraph buildCondensation(GraphView g, Result r, ParallelEdgePolicy policy) {
+        final int n = g.vertexCount(), c = r.compCount;
+        final int[] compOf = r.compOf;
+        int[] off = new int[c + 1];
+        for (int u = 0; u < n; u++) {
+            int a = compOf[u];
+            for (int e = g.offset(u), end = g.offset(u + 1); e < end; e++) {
+                if (compOf[g.target(e)] != a) off[a + 1]++;
+            }
+        }
+        for (int a = 0; a < c; a++) off[a + 1] += off[a];
+        int total = off[c];
+        int[] tgt = new int[total];
+        double[] wt = new double[total];
+        int[] fill = Arrays.copyOf(off, c);
+        for (int u = 0; u < n; u++) {
+            int a = compOf[u];
+            for (int e = g.offset(u), end = g.offset(u + 1); e < end; e++) {
+                int b = compOf[g.target(e)];
+                if (b == a) continue;
+                int k = fill[a]++;
+                tgt[k] = b;
+                wt[k] = g.weight(e);
+            }
+        }
+        // Compact each bucket in place; the write index never passes the read index.
+        int[] last = new int[c], slot = new int[c];
+        Arrays.fill(last, -1);
+        int k = 0;
+        for (int a = 0; a < c; a++) {
+            int from = off[a], to = off[a + 1];
+            off[a] = k;
+            for (int i = from; i < to; i++) {
+                int b = tgt[i];
+                double w = wt[i];
+                if (last[b] != a) {
+                    last[b] = a;
+                    slot[b] = k;
+                    tgt[k] = b;
+                    wt[k++] = w;
+                } else if (policy == ParallelEdgePolicy.MIN ? w < wt[slot[b]]
+                        : policy == ParallelEdgePolicy.MAX && w > wt[slot[b]]) {
+                    wt[slot[b]] = w;
+                }
             }
         }
-        return dag;
+        off[c] = k;
+        return new CsrGraph(c, true, off,
+                k == total ? tgt : Arrays.copyOf(tgt, k),
+                k == total ? wt : Arrays.copyOf(wt, k));
     }
 }
@@ -1,16 +1,15 @@
 package graph.topo;
-import util.Edge;
-import util.Graph;
+import util.GraphView;
 import util.Metrics;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Deque;
 import java.util.List;
 /**
  * Kahn's algorithm for topological ordering on a DAG.
  * Instrumented with queue pushes/pops counters.
  */
 public class KahnTopoSort {
+    private static final int PUSHES = Metrics.register("kahn_pushes");
+    private static final int POPS = Metrics.register("kahn_pops");
     /** Result of topological sorting. */
     public static class Result {
         public final List<Integer> order;
@@ -24,39 +23,36 @@ public class KahnTopoSort {
      * Computes a topological order using Kahn's algorithm.
      * Counts "kahn_pushes" and "kahn_pops" via Metrics.
      */
-    public Result topoOrder(Graph dag, Metrics m) {
-        final int n = dag.n;
-        // Compute indegrees
+    public Result topoOrder(GraphView dag, Metrics m) {
+        final int n = dag.vertexCount();
+        // Working copy of the (cached) indegrees
         int[] indeg = new int[n];
-        for (int u = 0; u < n; u++) {
-            for (Edge e : dag.adj.get(u)) {
-                indeg[e.to]++;
-            }
-        }
-        // Initialize queue with zero indegree vertices
-        Deque<Integer> q = new ArrayDeque<>();
+        for (int v = 0; v < n; v++) indeg[v] = dag.inDegree(v);
+        // FIFO queue over a primitive array: each vertex is enqueued at most once
+        int[] q = new int[n];
+        int head = 0, tail = 0;
         for (int i = 0; i < n; i++) {
             if (indeg[i] == 0) {
-                q.add(i);
-                m.inc("kahn_pushes");
+                q[tail++] = i;
             }
         }
-        List<Integer> ord = new ArrayList<>();
-        m.start();
+        m.begin("topo");
         // Pop vertex, decrease indegrees of its out-neighbors
-        while (!q.isEmpty()) {
-            int u = q.remove();
-            m.inc("kahn_pops");
-            ord.add(u);
-            for (Edge e : dag.adj.get(u)) {
-                if (--indeg[e.to] == 0) {
-                    q.add(e.to);
-                    m.inc("kahn_pushes");
+        while (head < tail) {
+            int u = q[head++];
+            for (int e = dag.offset(u), end = dag.offset(u + 1); e < end; e++) {
+                int v = dag.target(e);
+                if (--indeg[v] == 0) {
+                    q[tail++] = v;
                 }
             }
         }
-        m.stop();
-        return new Result(ord, ord.size() == n);
+        // Every vertex is pushed once and popped once, so both counters equal the queue length.
+        m.add(PUSHES, tail);
+        m.add(POPS, head);
+        m.end();
+        List<Integer> ord = new ArrayList<>(tail);
+        for (int i = 0; i < tail; i++) ord.add(q[i]);
+        return new Result(ord, tail == n);
     }
 }
-
@@ -0,0 +1,128 @@
+package graph.topo;
+import util.GraphView;
+import util.Metrics;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+/**
+ * Level-synchronous (wavefront) variant of Kahn's algorithm.
+ * Level 0 holds the vertices with indegree 0; level L + 1 holds the vertices whose last
+ * predecessor is in level L. Tasks in one level have no dependencies among each other
+ * and can run concurrently.
+ *
+ * Each level is processed in parallel on a ForkJoinPool: indegrees are an
+ * AtomicIntegerArray, and each worker collects newly freed vertices in a local buffer
+ * and appends it to the shared order array with one atomic reservation. Levels are
+ * sorted by vertex id, so the result is deterministic.
+ * Counts "kahn_pushes", "kahn_pops" (as KahnTopoSort) and "topo_levels" via Metrics.
+ */
+public class LevelTopoSort {
+    private static final int PUSHES = Metrics.register("kahn_pushes");
+    private static final int POPS = Metrics.register("kahn_pops");
+    private static final int LEVELS = Metrics.register("topo_levels");
+    /** Frontier slices at or below this many vertices are processed by one thread. */
+    static final int GRAIN = 2048;
+
+    /** Result: order lists the vertices level by level. */
+    public static class Result {
+        public final int[] order;
+        /** Level L is order[levelStart[L] .. levelStart[L + 1]). */
+        public final int[] levelStart;
+        public final int levelCount;
+        /** Same meaning as KahnTopoSort.Result.isDAG: every vertex was ordered. */
+        public final boolean isDAG;
+        public Result(int[] order, int[] levelStart, int levelCount, boolean isDAG) {
+            this.order = order;
+            this.levelStart = levelStart;
+            this.levelCount = levelCount;
+            this.isDAG = isDAG;
+        }
+        public int levelSize(int level) {
+            return levelStart[level + 1] - levelStart[level];
+        }
+    }
+
+    private final ForkJoinPool pool;
+    public LevelTopoSort() {
+        this(ForkJoinPool.commonPool());
+    }
+    public LevelTopoSort(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /** Computes the topological levels; on a cycle, order holds only the vertices that could be placed. */
+    public Result levels(GraphView dag, Metrics m) {
+        final int n = dag.vertexCount();
+        m.begin("topo");
+        AtomicIntegerArray indeg = new AtomicIntegerArray(n);
+        int[] order = new int[n];
+        int head = 0, end = 0;
+        for (int v = 0; v < n; v++) {
+            int d = dag.inDegree(v);
+            if (d == 0) order[end++] = v;
+            else indeg.set(v, d);
+        }
+        AtomicInteger tail = new AtomicInteger(end);
+
+        int[] levelStart = new int[16];
+        int levels = 0;
+        while (head < end) {
+            if (levels + 1 >= levelStart.length) levelStart = Arrays.copyOf(levelStart, levelStart.length * 2);
+            levelStart[levels++] = head;
+            pool.invoke(new Step(dag, indeg, order, tail, head, end));
+            head = end;
+            end = tail.get();
+            if (end - head > GRAIN) Arrays.parallelSort(order, head, end);
+            else Arrays.sort(order, head, end);
+        }
+        levelStart[levels] = head;
+        m.add(PUSHES, head);
+        m.add(POPS, head);
+        m.add(LEVELS, levels);
+        m.end();
+        return new Result(head == n ? order : Arrays.copyOf(order, head),
+                Arrays.copyOf(levelStart, levels + 1), levels, head == n);
+    }
+
+    // Expands frontier order[lo, hi): decrements successors, collecting those that reach 0.
+    private static final class Step extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final GraphView dag;
+        private final AtomicIntegerArray indeg;
+        private final int[] order;
+        private final AtomicInteger tail;
+        private final int lo, hi;
+        Step(GraphView dag, AtomicIntegerArray indeg, int[] order, AtomicInteger tail, int lo, int hi) {
+            this.dag = dag;
+            this.indeg = indeg;
+            this.order = order;
+            this.tail = tail;
+            this.lo = lo;
+            this.hi = hi;
+        }
+        @Override
+        protected void compute() {
+            if (hi - lo > GRAIN) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new Step(dag, indeg, order, tail, lo, mid),
+                          new Step(dag, indeg, order, tail, mid, hi));
+                return;
+            }
+            int[] freed = new int[16];
+            int k = 0;
+            for (int i = lo; i < hi; i++) {
+                int u = order[i];
+                for (int e = dag.offset(u), end = dag.offset(u + 1); e < end; e++) {
+                    int v = dag.target(e);
+                    if (indeg.decrementAndGet(v) == 0) {
+                        if (k == freed.length) freed = Arrays.copyOf(freed, k * 2);
+                        freed[k++] = v;
+                    }
+                }
+            }
+            if (k > 0) System.arraycopy(freed, 0, order, tail.getAndAdd(k), k);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package graph.topo;
+import util.GraphView;
+import util.Metrics;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+/**
+ * Reachability labels for a DAG (normally the condensation), GRAIL-style:
+ *  - topo filter : u can only reach v if u comes before v in the topological order
+ *  - intervals   : k randomized DFS traversals give each vertex [low, post], where post
+ *                  is its post-order rank and low the smallest rank below it; u reaches
+ *                  v only if v's interval nests in u's in every traversal
+ *  - landmarks   : per vertex, a 64-bit set of the landmarks (the 64 largest
+ *                  (in + 1) * (out + 1) degrees) it reaches and one of those reaching it.
+ *                  A landmark between u and v is a definite "yes"; a landmark v reaches
+ *                  but u does not (or one reaching u but not v) is a definite "no"
+ * Most queries are answered by these O(k) checks; the rest run a DFS that only enters
+ * vertices still passing them. DAGs with at most bitsetLimit vertices (default 4096,
+ * 2 MB) get the full transitive closure as bitsets instead: one bit test per query.
+ *
+ * Building takes k DFS passes plus two landmark sweeps, O(k (n + m)) and an n log n sort
+ * of degree scores, or O(n * m / 64) for the closure. Original
+ * vertices map to components with compOf: reachesVertex(compOf, u, v).
+ * Index is immutable and safe for concurrent queries (each thread gets its own DFS scratch).
+ *
+ * Metrics keys (Metrics):
+ *  - "reach_label_edges" : edge visits while labeling (or building the closure)
+ * Timed phase: "reach_index".
+ */
+public class ReachabilityIndex {
+    private static final int LABEL_EDGES = Metrics.register("reach_label_edges");
+
+    private int traversals = 3;
+    private int bitsetLimit = 1 << 12;
+    private long seed = 42;
+
+    /** Number of interval labels per vertex (default 3). */
+    public ReachabilityIndex traversals(int k) {
+        if (k < 1) throw new IllegalArgumentException("traversals must be positive: " + k);
+        traversals = k;
+        return this;
+    }
+    /** Largest DAG for which the full closure bitsets are built (default 4096, at most 65536; 0 disables). */
+    public ReachabilityIndex bitsetLimit(int n) {
+        if (n < 0 || n > 1 << 16) throw new IllegalArgumentException("bitsetLimit must be in [0, 65536]: " + n);
+        bitsetLimit = n;
+        return this;
+    }
+    public ReachabilityIndex seed(long s) {
+        seed = s;
+        return this;
+    }
+
+    public static final class Index {
+        private final GraphView dag;
+        private final int[] pos;        // vertex -> topo position
+        private final int k;
+        private final int[] labels;     // (v * k + i) * 2 -> low, + 1 -> post; null with closure
+        private final long[] out, in;   // landmarks reached from v / reaching v
+        private final long[] closure;   // row v: words [v * words, (v + 1) * words); null without
+        private final int words;
+        private final ThreadLocal<Search> search;
+
+        Index(GraphView dag, int[] pos, int k, int[] labels, long[] out, long[] in, long[] closure, int words) {
+            this.dag = dag;
+            this.pos = pos;
+            this.k = k;
+            this.labels = labels;
+            this.out = out;
+            this.in = in;
+            this.closure = closure;
+            this.words = words;
+            this.search = ThreadLocal.withInitial(() -> new Search(pos.length));
+        }
+
+        /** True if DAG vertex b is reachable from a (a reaches itself). */
+        public boolean reaches(int a, int b) {
+            if (a == b) return true;
+            if (pos[a] > pos[b]) return false;
+            if (closure != null) return (closure[a * words + (b >>> 6)] & (1L << b)) != 0;
+            if ((out[a] & in[b]) != 0) return true;
+            if (!maybe(a, b)) return false;
+            return search.get().run(this, a, b);
+        }
+        /** Reachability between original vertices u and v through their components. */
+        public boolean reachesVertex(int[] compOf, int u, int v) {
+            return reaches(compOf[u], compOf[v]);
+        }
+        /** True if the answer for (a, b) needs no search (filters, labels or closure decide it). */
+        public boolean isDefinite(int a, int b) {
+            return a == b || pos[a] > pos[b] || closure != null || (out[a] & in[b]) != 0 || !maybe(a, b);
+        }
+        public boolean usesClosure() {
+            return closure != null;
+        }
+        /** Heap bytes held by the index arrays (not counting the DAG itself). */
+        public long memoryBytes() {
+            long bytes = 4L * pos.length;
+            if (labels != null) bytes += 4L * labels.length + 16L * out.length;
+            if (closure != null) bytes += 8L * closure.length;
+            return bytes;
+        }
+
+        // landmark sets and intervals of b nest in a's
+        private boolean maybe(int a, int b) {
+            if ((out[b] & ~out[a]) != 0 || (in[a] & ~in[b]) != 0) return false;
+            int la = a * k * 2, lb = b * k * 2;
+            for (int i = 0; i < 2 * k; i += 2) {
+                if (labels[la + i] > labels[lb + i] || labels[lb + i + 1] > labels[la + i + 1]) return false;
+            }
+            return true;
+        }
+    }
+
+    /** Per-thread DFS scratch; visited marks are epoch stamps, so nothing is cleared per query. */
+    private static final class Search {
+        final int[] stamp, stack;
+        int epoch;
+        Search(int n) {
+            stamp = new int[n];
+            stack = new int[n];
+        }
+        boolean run(Index ix, int a, int b) {
+            if (++epoch == 0) {
+                Arrays.fill(stamp, 0);
+                epoch = 1;
+            }
+            GraphView g = ix.dag;
+            int top = 0, pb = ix.pos[b];
+            stack[top++] = a;
+            stamp[a] = epoch;
+            while (top > 0) {
+                int u = stack[--top];
+                for (int e = g.offset(u), end = g.offset(u + 1); e < end; e++) {
+                    int c = g.target(e);
+                    if (c == b) return true;
+                    if (stamp[c] == epoch || ix.pos[c] >= pb) continue;
+                    if ((ix.out[c] & ix.in[b]) != 0) return true;
+                    if (!ix.maybe(c, b)) continue;
+                    stamp[c] = epoch;
+                    stack[top++] = c;
+                }
+            }
+            return false;
+        }
+    }
+
+    public Index build(GraphView dag, List<Integer> topo, Metrics m) {
+        int[] order = new int[topo == null ? 0 : topo.size()];
+        for (int i = 0; i < order.length; i++) order[i] = topo.get(i);
+        return build(dag, topo == null ? null : order, m);
+    }
+    public Index build(GraphView dag, int[] topo, Metrics m) {
+        final int n = dag.vertexCount();
+        if (topo == null || topo.length != n) {
+            throw new IllegalArgumentException("Invalid topological order size: " +
+                    (topo == null ? "null" : topo.length) + " vs dag.n=" + n);
+        }
+        m.begin("reach_index");
+        int[] pos = new int[n];
+        for (int i = 0; i < n; i++) pos[topo[i]] = i;
+        long visits = 0;
+        Index ix;
+        if (n <= bitsetLimit) {
+            int words = (n + 63) >>> 6;
+            long[] rows = new long[n * words];
+            for (int i = n - 1; i >= 0; i--) {
+                int u = topo[i], ru = u * words;
+                for (int e = dag.offset(u), end = dag.offset(u + 1); e < end; e++) {
+                    int v = dag.target(e), rv = v * words;
+                    rows[ru + (v >>> 6)] |= 1L << v;
+                    for (int w = 0; w < words; w++) rows[ru + w] |= rows[rv + w];
+                }
+                visits += dag.offset(u + 1) - dag.offset(u);
+            }
+            ix = new Index(dag, pos, 0, null, null, null, rows, words);
+        } else {
+            int k = traversals;
+            int[] labels = new int[2 * k * n];
+            SplittableRandom rnd = new SplittableRandom(seed);
+            int[] stack = new int[n], next = new int[n], shift = new int[n];
+            boolean[] done = new boolean[n];
+            for (int t = 0; t < k; t++) {
+                // random rotation of each adjacency list and of the root order
+                for (int v = 0; v < n; v++) {
+                    int d = dag.offset(v + 1) - dag.offset(v);
+                    shift[v] = d > 1 ? rnd.nextInt(d) : 0;
+                    next[v] = 0;
+                }
+                Arrays.fill(done, false);
+                int rank = 0, base = 2 * t, rootShift = n > 0 ? rnd.nextInt(n) : 0;
+                for (int i = 0; i < n; i++) {
+                    int root = topo[(i + rootShift) % n];
+                    if (done[root]) continue;
+                    int top = 0;
+                    stack[top++] = root;
+                    done[root] = true;
+                    labels[root * 2 * k + base] = Integer.MAX_VALUE;
+                    while (top > 0) {
+                        int u = stack[top - 1];
+                        int off = dag.offset(u), d = dag.offset(u + 1) - off;
+                        if (next[u] < d) {
+                            int c = dag.target(off + (next[u]++ + shift[u]) % d);
+                            visits++;
+                            if (!done[c]) {
+                                done[c] = true;
+                                labels[c * 2 * k + base] = Integer.MAX_VALUE;
+                                stack[top++] = c;
+                            } else {
+                                int lc = labels[c * 2 * k + base], lu = u * 2 * k + base;
+                                if (lc < labels[lu]) labels[lu] = lc;
+                            }
+                            continue;
+                        }
+                        // u finished: post rank, low = min(rank, children's lows)
+                        int lu = u * 2 * k + base, r = rank++;
+                        labels[lu + 1] = r;
+                        if (r < labels[lu]) labels[lu] = r;
+                        top--;
+                        if (top > 0) {
+                            int lp = stack[top - 1] * 2 * k + base;
+                            if (labels[lu] < labels[lp]) labels[lp] = labels[lu];
+                        }
+                    }
+                }
+            }
+            long[] out = new long[n], in = new long[n];
+            landmarks(dag, topo, out, in);
+            visits += 2L * dag.edgeCount();
+            ix = new Index(dag, pos, k, labels, out, in, null, 0);
+        }
+        m.add(LABEL_EDGES, visits);
+        m.end();
+        return ix;
+    }
+
+    // Landmarks: the 64 vertices with the largest (in + 1) * (out + 1); one sweep each way.
+    private static void landmarks(GraphView dag, int[] topo, long[] out, long[] in) {
+        int n = topo.length;
+        int[] indeg = new int[n];
+        for (int e = 0; e < dag.edgeCount(); e++) indeg[dag.target(e)]++;
+        long[] key = new long[n];
+        for (int v = 0; v < n; v++) {
+            long score = Math.min(Integer.MAX_VALUE, (long) (indeg[v] + 1) * (dag.offset(v + 1) - dag.offset(v) + 1));
+            key[v] = score << 32 | (n - 1 - v);     // ties: smaller id first
+        }
+        Arrays.sort(key);
+        for (int i = 0; i < Math.min(64, n); i++) {
+            int v = n - 1 - (int) key[n - 1 - i];
+            out[v] = in[v] = 1L << i;
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            int u = topo[i];
+            for (int e = dag.offset(u), end = dag.offset(u + 1); e < end; e++) out[u] |= out[dag.target(e)];
+        }
+        for (int u : topo) {
+            for (int e = dag.offset(u), end = dag.offset(u + 1); e < end; e++) in[dag.target(e)] |= in[u];
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package util;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+/**
+ * Versioned little-endian binary graph format (".scg"), loaded with FileChannel.map.
+ *
+ * Layout (every section starts on an 8-byte boundary):
+ *   header   : magic "SCGB", version, flags, n, m, source, compCount, dagM, wmLen, reserved (10 ints),
+ *              srcSize, srcMtime (2 longs: size and mtime in ms of the file it was converted
+ *              from, -1 if unknown; version 2 only, version 1 files end the header at 40 bytes)
+ *   wm       : weight_model as UTF-8 (wmLen bytes)
+ *   offsets  : int[n + 1]
+ *   targets  : int[m]
+ *   weights  : double[m]
+ *   -- only if FLAG_CONDENSATION --
+ *   compOf   : int[n]
+ *   dagOff   : int[compCount + 1]
+ *   dagTgt   : int[dagM]
+ *   dagW     : double[dagM]
+ *
+ * Each array section is mapped separately, so an array may be up to 2 GB.
+ */
+public final class BinaryGraphFormat {
+    public static final int MAGIC = 0x42474353;   // "SCGB" read little-endian
+    public static final int VERSION = 2;
+    public static final String EXTENSION = ".scg";
+    static final int FLAG_DIRECTED = 1, FLAG_SOURCE = 2, FLAG_CONDENSATION = 4;
+    private static final int HEADER_BYTES = 56, HEADER_BYTES_V1 = 40;
+
+    /** A mapped file: the dataset plus the cached condensation, if one was stored. */
+    public static final class Mapped {
+        public final GraphLoader.Dataset dataset;
+        /** Cached condensation DAG, or null if the file has none. */
+        public final MappedGraph condensation;
+        private final IntBuffer compOf;
+        private final long sourceSize, sourceMtime;
+        Mapped(GraphLoader.Dataset dataset, MappedGraph condensation, IntBuffer compOf,
+               long sourceSize, long sourceMtime) {
+            this.dataset = dataset;
+            this.condensation = condensation;
+            this.compOf = compOf;
+            this.sourceSize = sourceSize;
+            this.sourceMtime = sourceMtime;
+        }
+        /**
+         * True if this file was converted from source as it is now (same size and mtime).
+         * False when no source was recorded (version 1 files, or written without one).
+         */
+        public boolean isConvertedFrom(Path source) throws IOException {
+            return sourceSize >= 0 && Files.size(source) == sourceSize
+                    && Files.getLastModifiedTime(source).toMillis() == sourceMtime;
+        }
+        public boolean hasCondensation() {
+            return condensation != null;
+        }
+        /** Component of vertex v in the cached condensation. */
+        public int compOf(int v) {
+            return compOf.get(v);
+        }
+        /** Heap copy of the cached vertex -> component map. */
+        public int[] copyCompOf() {
+            int[] out = new int[compOf.capacity()];
+            compOf.get(0, out);
+            return out;
+        }
+    }
+
+    private BinaryGraphFormat() {}
+
+    /** True if the file starts with the binary format magic. */
+    public static boolean isBinary(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer b = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            while (b.hasRemaining() && ch.read(b) >= 0) { }
+            return !b.hasRemaining() && b.getInt(0) == MAGIC;
+        }
+    }
+
+    /** Writes a dataset without a cached condensation. */
+    public static void write(GraphLoader.Dataset ds, Path out) throws IOException {
+        write(ds, null, 0, null, out);
+    }
+    /**
+     * Writes a dataset plus (if compOf != null) its SCC map and condensation DAG.
+     */
+    public static void write(GraphLoader.Dataset ds, int[] compOf, int compCount,
+                             GraphView dag, Path out) throws IOException {
+        write(ds, compOf, compCount, dag, null, out);
+    }
+    /**
+     * As above, also recording the size and mtime of the file the dataset was read from
+     * (null: none), so readers can tell when the .scg has gone stale (Mapped.isConvertedFrom).
+     */
+    public static void write(GraphLoader.Dataset ds, int[] compOf, int compCount,
+                             GraphView dag, Path source, Path out) throws IOException {
+        GraphView g = ds.graph;
+        int n = g.vertexCount(), m = g.edgeCount();
+        byte[] wm = (ds.weightModel == null ? "edge" : ds.weightModel).getBytes(StandardCharsets.UTF_8);
+        int flags = (ds.directed ? FLAG_DIRECTED : 0)
+                | (ds.source != null ? FLAG_SOURCE : 0)
+                | (compOf != null ? FLAG_CONDENSATION : 0);
+        try (FileChannel ch = FileChannel.open(out, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Writer w = new Writer(ch);
+            w.putInt(MAGIC).putInt(VERSION).putInt(flags).putInt(n).putInt(m)
+                    .putInt(ds.source == null ? -1 : ds.source)
+                    .putInt(compOf == null ? 0 : compCount)
+                    .putInt(compOf == null ? 0 : dag.edgeCount())
+                    .putInt(wm.length).putInt(0)
+                    .putLong(source == null ? -1 : Files.size(source))
+                    .putLong(source == null ? -1 : Files.getLastModifiedTime(source).toMillis());
+            w.putBytes(wm).align();
+            writeCsr(w, g);
+            if (compOf != null) {
+                for (int v = 0; v < n; v++) w.putInt(compOf[v]);
+                w.align();
+                writeCsr(w, dag);
+            }
+            w.flush();
+        }
+    }
+    private static void writeCsr(Writer w, GraphView g) throws IOException {
+        int n = g.vertexCount(), m = g.edgeCount();
+        for (int u = 0; u <= n; u++) w.putInt(g.offset(u));
+        w.align();
+        for (int e = 0; e < m; e++) w.putInt(g.target(e));
+        w.align();
+        for (int e = 0; e < m; e++) w.putDouble(g.weight(e));
+    }
+
+    /**
+     * Maps a binary graph file; the returned views stay valid after the channel is closed.
+     * Header counts are checked before anything is allocated or mapped, and offsets (plus
+     * compOf and the condensation targets, if cached) are range-checked after mapping, so a
+     * corrupt file fails with an IOException naming the path. Graph targets are not scanned.
+     */
+    public static Mapped open(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer h = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (h.hasRemaining() && ch.read(h, h.position()) >= 0) { }
+            if (h.position() < HEADER_BYTES_V1 || h.getInt(0) != MAGIC) {
+                throw new IOException(path + ": not a binary graph file");
+            }
+            int version = h.getInt(4);
+            if (version != VERSION && version != 1) {
+                throw new IOException(path + ": unsupported binary graph version " + version);
+            }
+            int headerBytes = version == 1 ? HEADER_BYTES_V1 : HEADER_BYTES;
+            if (h.position() < headerBytes) throw new IOException(path + ": truncated binary graph file");
+            long srcSize = version == 1 ? -1 : h.getLong(40), srcMtime = version == 1 ? -1 : h.getLong(48);
+            int flags = h.getInt(8), n = h.getInt(12), m = h.getInt(16), source = h.getInt(20);
+            int compCount = h.getInt(24), dagM = h.getInt(28), wmLen = h.getInt(32);
+            boolean cond = (flags & FLAG_CONDENSATION) != 0;
+            if (n < 0 || m < 0 || wmLen < 0 || wmLen > ch.size() - headerBytes
+                    || (cond && (compCount < 0 || compCount > n || dagM < 0))
+                    || ((flags & FLAG_SOURCE) != 0 && (source < 0 || source >= n))) {
+                throw new IOException(path + ": corrupt binary graph header (n=" + n + ", m=" + m
+                        + ", source=" + source + ", compCount=" + compCount + ", dagM=" + dagM
+                        + ", wmLen=" + wmLen + ")");
+            }
+
+            long pos = headerBytes;
+            ByteBuffer wmBuf = ByteBuffer.allocate(wmLen);
+            while (wmBuf.hasRemaining() && ch.read(wmBuf, pos + wmBuf.position()) >= 0) { }
+            String wm = new String(wmBuf.array(), StandardCharsets.UTF_8);
+            pos = align(pos + wmLen);
+
+            long[] cursor = {pos};
+            MappedGraph g = mapCsr(ch, path, cursor, n, m);
+            MappedGraph dag = null;
+            IntBuffer compOf = null;
+            if (cond) {
+                compOf = map(ch, path, cursor, 4L * n).asIntBuffer();
+                for (int v = 0; v < n; v++) {
+                    int c = compOf.get(v);
+                    if (c < 0 || c >= compCount) {
+                        throw new IOException(path + ": compOf[" + v + "] = " + c + " out of range for compCount=" + compCount);
+                    }
+                }
+                dag = mapCsr(ch, path, cursor, compCount, dagM);
+                for (int e = 0; e < dagM; e++) {
+                    int t = dag.target(e);
+                    if (t < 0 || t >= compCount) {
+                        throw new IOException(path + ": condensation target " + t + " out of range for compCount=" + compCount);
+                    }
+                }
+            }
+            if (cursor[0] > ch.size()) throw new IOException(path + ": truncated binary graph file");
+            GraphLoader.Dataset ds = new GraphLoader.Dataset(g,
+                    (flags & FLAG_SOURCE) != 0 ? source : null, wm, (flags & FLAG_DIRECTED) != 0);
+            return new Mapped(ds, dag, compOf, srcSize, srcMtime);
+        }
+    }
+    private static MappedGraph mapCsr(FileChannel ch, Path path, long[] cursor, int n, int m) throws IOException {
+        IntBuffer off = map(ch, path, cursor, 4L * (n + 1)).asIntBuffer();
+        // O(n): offsets must run from 0 to m without decreasing (targets are not scanned)
+        int prev = 0;
+        for (int u = 0; u <= n; u++) {
+            int o = off.get(u);
+            if (o < prev || (u == 0 && o != 0) || (u == n && o != m)) {
+                throw new IOException(path + ": corrupt offsets at " + u + " (" + o + ", m=" + m + ")");
+            }
+            prev = o;
+        }
+        IntBuffer tgt = map(ch, path, cursor, 4L * m).asIntBuffer();
+        DoubleBuffer w = map(ch, path, cursor, 8L * m).asDoubleBuffer();
+        return new MappedGraph(n, off, tgt, w);
+    }
+    private static MappedByteBuffer map(FileChannel ch, Path path, long[] cursor, long bytes) throws IOException {
+        if (bytes > Integer.MAX_VALUE) throw new IOException(path + ": section of " + bytes + " bytes exceeds 2 GB");
+        if (cursor[0] + bytes > ch.size()) throw new IOException(path + ": truncated binary graph file");
+        MappedByteBuffer b = ch.map(FileChannel.MapMode.READ_ONLY, cursor[0], bytes);
+        b.order(ByteOrder.LITTLE_ENDIAN);
+        cursor[0] = align(cursor[0] + bytes);
+        return b;
+    }
+    private static long align(long pos) {
+        return (pos + 7) & ~7L;
+    }
+
+    // Buffered little-endian channel writer that tracks the absolute position for alignment.
+    private static final class Writer {
+        private final FileChannel ch;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        private long written;
+        Writer(FileChannel ch) { this.ch = ch; }
+        Writer putInt(int x) throws IOException {
+            if (buf.remaining() < 4) flush();
+            buf.putInt(x);
+            return this;
+        }
+        Writer putLong(long x) throws IOException {
+            if (buf.remaining() < 8) flush();
+            buf.putLong(x);
+            return this;
+        }
+        Writer putDouble(double x) throws IOException {
+            if (buf.remaining() < 8) flush();
+            buf.putDouble(x);
+            return this;
+        }
+        Writer putBytes(byte[] b) throws IOException {
+            for (byte x : b) {
+                if (!buf.hasRemaining()) flush();
+                buf.put(x);
+            }
+            return this;
+        }
+        void align() throws IOException {
+            while (((written + buf.position()) & 7) != 0) {
+                if (!buf.hasRemaining()) flush();
+                buf.put((byte) 0);
+            }
+        }
+        void flush() throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) written += ch.write(buf);
+            buf.clear();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package util;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+/**
+ * Buffered writer over a WritableByteChannel for text and little-endian binary output.
+ *
+ * Numbers are formatted straight into the buffer, so num() and fixed() allocate nothing.
+ * fixed(x, d) prints exactly what String.format(Locale.US, "%.df", x) prints: Formatter
+ * rounds the shortest decimal form of x HALF_UP, which only differs from rounding the
+ * scaled double when x * 10^d lies within 1e-6 of a .5 tie (or is too large for a
+ * long); those values fall back to String.format.
+ *
+ * Not thread-safe; one writer per output file.
+ */
+public final class ChannelWriter implements Closeable {
+    private static final byte[] NEWLINE = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+    private static final long[] POW10 = new long[10];
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) POW10[i] = POW10[i - 1] * 10;
+    }
+    private static final double TIE = 1e-6, FAST_LIMIT = 1e9;
+
+    private final WritableByteChannel ch;
+    private final ByteBuffer buf;
+    private final byte[] digits = new byte[20];
+
+    /** bufferBytes is raised to 32, the most a single num() or fixed() reserves. */
+    public ChannelWriter(WritableByteChannel ch, int bufferBytes) {
+        this.ch = ch;
+        this.buf = ByteBuffer.allocateDirect(Math.max(32, bufferBytes)).order(ByteOrder.LITTLE_ENDIAN);
+    }
+    /** Creates or truncates path, with a 64 KB buffer. */
+    public static ChannelWriter open(Path path) throws IOException {
+        return new ChannelWriter(FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE), 1 << 16);
+    }
+
+    // ---------- text ----------
+
+    /** Appends s as UTF-8 (ASCII is copied char by char). */
+    public ChannelWriter text(String s) throws IOException {
+        int n = s.length();
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+            if (c >= 0x80) return bytes(s.substring(i).getBytes(StandardCharsets.UTF_8));
+            ensure(1);
+            buf.put((byte) c);
+        }
+        return this;
+    }
+    /** One ASCII character. */
+    public ChannelWriter ch(char c) throws IOException {
+        if (c >= 0x80) throw new IllegalArgumentException("not ASCII: " + (int) c);
+        ensure(1);
+        buf.put((byte) c);
+        return this;
+    }
+    public ChannelWriter newline() throws IOException {
+        return bytes(NEWLINE);
+    }
+    public ChannelWriter bytes(byte[] b) throws IOException {
+        for (int off = 0; off < b.length; ) {
+            ensure(1);
+            int k = Math.min(buf.remaining(), b.length - off);
+            buf.put(b, off, k);
+            off += k;
+        }
+        return this;
+    }
+    /** Decimal integer, as String.valueOf. */
+    public ChannelWriter num(long x) throws IOException {
+        ensure(20);
+        if (x < 0) {
+            buf.put((byte) '-');
+            if (x == Long.MIN_VALUE) return text("9223372036854775808");
+            x = -x;
+        }
+        int k = digits.length;
+        do {
+            digits[--k] = (byte) ('0' + x % 10);
+            x /= 10;
+        } while (x != 0);
+        buf.put(digits, k, digits.length - k);
+        return this;
+    }
+    /** Finite x with d (0..9) decimals, as String.format(Locale.US, "%.df", x). */
+    public ChannelWriter fixed(double x, int d) throws IOException {
+        double a = Math.abs(x), scaled = a * POW10[d], floor = Math.floor(scaled);
+        if (!(a < FAST_LIMIT) || Math.abs(scaled - floor - 0.5) < TIE) {
+            return text(String.format(Locale.US, "%." + d + "f", x));
+        }
+        long units = (long) floor + (scaled - floor > 0.5 ? 1 : 0);
+        if (x < 0 || (x == 0 && 1 / x < 0)) ch('-');     // -0.0 and tiny negatives print "-0.000"
+        num(units / POW10[d]);
+        if (d > 0) {
+            ensure(d + 1);
+            buf.put((byte) '.');
+            long frac = units % POW10[d];
+            for (int i = d - 1; i >= 0; i--) buf.put((byte) ('0' + frac / POW10[i] % 10));
+        }
+        return this;
+    }
+
+    // ---------- binary (little-endian) ----------
+
+    public ChannelWriter u8(int x) throws IOException {
+        ensure(1);
+        buf.put((byte) x);
+        return this;
+    }
+    public ChannelWriter i32(int x) throws IOException {
+        ensure(4);
+        buf.putInt(x);
+        return this;
+    }
+    public ChannelWriter i64(long x) throws IOException {
+        ensure(8);
+        buf.putLong(x);
+        return this;
+    }
+    public ChannelWriter f64(double x) throws IOException {
+        ensure(8);
+        buf.putDouble(x);
+        return this;
+    }
+    /** int32 byte length, then UTF-8 bytes; null is written as length -1. */
+    public ChannelWriter str(String s) throws IOException {
+        if (s == null) return i32(-1);
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        return i32(b.length).bytes(b);
+    }
+
+    public void flush() throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) ch.write(buf);
+        buf.clear();
+    }
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            ch.close();
+        }
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buf.remaining() < bytes) flush();
+    }
+}
@@ -0,0 +1,119 @@
+package util;
+/**
+ * Immutable directed graph stored as primitive CSR arrays:
+ * offsets[n + 1], targets[m], weights[m].
+ * Costs 12 bytes per edge and 4 bytes per vertex, with no per-edge objects.
+ */
+public final class CsrGraph implements GraphView {
+    /** Number of vertices. */
+    public final int n;
+    /** True if the graph is directed. */
+    public final boolean directed;
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] weights;
+    private volatile int[] inDeg;
+    private volatile CsrGraph transpose;
+    /** Wraps ready CSR arrays (not copied). */
+    public CsrGraph(int n, boolean directed, int[] offsets, int[] targets, double[] weights) {
+        if (offsets.length != n + 1 || targets.length != offsets[n] || weights.length != offsets[n]) {
+            throw new IllegalArgumentException("Inconsistent CSR arrays: n=" + n
+                    + ", offsets=" + offsets.length + ", targets=" + targets.length
+                    + ", weights=" + weights.length);
+        }
+        this.n = n;
+        this.directed = directed;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+    /**
+     * Builds a CSR graph from the first m entries of parallel edge arrays.
+     * Counting sort by tail; edges of each vertex keep their input order.
+     */
+    public static CsrGraph fromEdges(int n, boolean directed, int m,
+                                     int[] from, int[] to, double[] w) {
+        int[] off = new int[n + 1];
+        for (int i = 0; i < m; i++) {
+            int u = from[i], v = to[i];
+            if (u < 0 || u >= n || v < 0 || v >= n) {
+                throw new IllegalArgumentException("Edge " + u + "->" + v + " out of range for n=" + n);
+            }
+            off[u + 1]++;
+        }
+        for (int u = 0; u < n; u++) off[u + 1] += off[u];
+        int[] next = new int[n];
+        System.arraycopy(off, 0, next, 0, n);
+        int[] tgt = new int[m];
+        double[] wt = new double[m];
+        for (int i = 0; i < m; i++) {
+            int slot = next[from[i]]++;
+            tgt[slot] = to[i];
+            wt[slot] = w[i];
+        }
+        return new CsrGraph(n, directed, off, tgt, wt);
+    }
+    /** Snapshot of any graph view (copies arrays). */
+    public static CsrGraph copyOf(GraphView g, boolean directed) {
+        int n = g.vertexCount(), m = g.edgeCount();
+        int[] off = new int[n + 1];
+        int[] tgt = new int[m];
+        double[] wt = new double[m];
+        for (int u = 0; u <= n; u++) off[u] = g.offset(u);
+        for (int e = 0; e < m; e++) {
+            tgt[e] = g.target(e);
+            wt[e] = g.weight(e);
+        }
+        return new CsrGraph(n, directed, off, tgt, wt);
+    }
+    /** Reverse graph: edge u -> v (w) becomes v -> u (w); edges into v keep tail order. */
+    public static CsrGraph transposeOf(GraphView g, boolean directed) {
+        int n = g.vertexCount(), m = g.edgeCount();
+        int[] off = new int[n + 1];
+        for (int e = 0; e < m; e++) off[g.target(e) + 1]++;
+        for (int v = 0; v < n; v++) off[v + 1] += off[v];
+        int[] next = new int[n];
+        System.arraycopy(off, 0, next, 0, n);
+        int[] tgt = new int[m];
+        double[] wt = new double[m];
+        for (int u = 0; u < n; u++) {
+            for (int e = g.offset(u), end = g.offset(u + 1); e < end; e++) {
+                int slot = next[g.target(e)]++;
+                tgt[slot] = u;
+                wt[slot] = g.weight(e);
+            }
+        }
+        return new CsrGraph(n, directed, off, tgt, wt);
+    }
+    @Override public int vertexCount() { return n; }
+    @Override public int edgeCount() { return offsets[n]; }
+    @Override public int offset(int u) { return offsets[u]; }
+    @Override public int target(int e) { return targets[e]; }
+    @Override public double weight(int e) { return weights[e]; }
+    @Override
+    public int inDegree(int v) {
+        int[] d = inDeg;
+        if (d == null) inDeg = d = countInDegrees(this);
+        return d[v];
+    }
+    @Override
+    public CsrGraph transpose() {
+        CsrGraph t = transpose;
+        if (t == null) {
+            t = transposeOf(this, directed);
+            t.transpose = this;
+            transpose = t;
+        }
+        return t;
+    }
+    /** In-degree of every vertex, by one pass over the edge targets. */
+    public static int[] countInDegrees(GraphView g) {
+        int[] d = new int[g.vertexCount()];
+        for (int e = 0, m = g.edgeCount(); e < m; e++) d[g.target(e)]++;
+        return d;
+    }
+    /** Approximate heap footprint of the CSR arrays in bytes. */
+    public long memoryBytes() {
+        return 16L * 3 + 4L * offsets.length + 4L * targets.length + 8L * weights.length;
+    }
+}
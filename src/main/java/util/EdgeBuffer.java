@@ -0,0 +1,168 @@
+package util;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+/**
+ * Growable primitive edge list (parallel int/int/double arrays).
+ * Collects edges before the vertex count is known, then converts to CSR.
+ */
+public final class EdgeBuffer {
+    private int[] from, to;
+    private double[] w;
+    private int size;
+    public EdgeBuffer() {
+        this(1024);
+    }
+    public EdgeBuffer(int capacity) {
+        capacity = Math.max(capacity, 16);
+        from = new int[capacity];
+        to = new int[capacity];
+        w = new double[capacity];
+    }
+    /** Appends edge u -> v with weight wt. */
+    public void add(int u, int v, double wt) {
+        if (size == from.length) grow();
+        from[size] = u;
+        to[size] = v;
+        w[size] = wt;
+        size++;
+    }
+    public int size() {
+        return size;
+    }
+    /** Largest vertex id referenced by any edge, or -1 if empty. */
+    public int maxVertex() {
+        int max = -1;
+        for (int i = 0; i < size; i++) max = Math.max(max, Math.max(from[i], to[i]));
+        return max;
+    }
+    /** Builds a CSR graph over n vertices; edges of each vertex keep insertion order. */
+    public CsrGraph toCsr(int n, boolean directed) {
+        return CsrGraph.fromEdges(n, directed, size, from, to, w);
+    }
+    /** One CSR over n vertices from several buffers, taken in order (as if appended to one). */
+    public static CsrGraph toCsr(EdgeBuffer[] parts, int n, boolean directed) {
+        int[] off = new int[n + 1];
+        long m = 0;
+        for (EdgeBuffer p : parts) {
+            for (int i = 0; i < p.size; i++) {
+                int u = p.from[i], v = p.to[i];
+                if (u < 0 || u >= n || v < 0 || v >= n) {
+                    throw new IllegalArgumentException("Edge " + u + "->" + v + " out of range for n=" + n);
+                }
+                off[u + 1]++;
+            }
+            m += p.size;
+        }
+        if (m > Integer.MAX_VALUE - 8) throw new IllegalStateException("Too many edges: " + m);
+        for (int u = 0; u < n; u++) off[u + 1] += off[u];
+        int[] next = Arrays.copyOf(off, n);
+        int[] tgt = new int[(int) m];
+        double[] wt = new double[(int) m];
+        for (EdgeBuffer p : parts) {
+            for (int i = 0; i < p.size; i++) {
+                int slot = next[p.from[i]]++;
+                tgt[slot] = p.to[i];
+                wt[slot] = p.w[i];
+            }
+        }
+        return new CsrGraph(n, directed, off, tgt, wt);
+    }
+    /**
+     * Same graph as toCsr(parts, n, directed), built on a pool: edges are first partitioned
+     * by tail into contiguous vertex ranges (one scatter per part, in parallel), then each
+     * range fills its slice of the CSR independently. Parts are cleared as they are consumed.
+     */
+    public static CsrGraph toCsr(EdgeBuffer[] parts, int n, boolean directed, ForkJoinPool pool) {
+        int k = parts.length, buckets = (int) Math.min(n, 4L * pool.getParallelism());
+        if (buckets <= 1 || pool.getParallelism() == 1) return toCsr(parts, n, directed);
+        final int span = (n + buckets - 1) / buckets;
+        final int nb = (n + span - 1) / span;
+        long[][] count = new long[k][nb + 1];
+        pool.invoke(new RangeTask(0, k, c -> {
+            EdgeBuffer p = parts[c];
+            long[] cnt = count[c];
+            for (int i = 0; i < p.size; i++) {
+                int u = p.from[i], v = p.to[i];
+                if (u < 0 || u >= n || v < 0 || v >= n) {
+                    throw new IllegalArgumentException("Edge " + u + "->" + v + " out of range for n=" + n);
+                }
+                cnt[u / span]++;
+            }
+        }));
+        // next[c][b]: first slot of part c's edges in bucket b; bucketStart[b]: first edge of bucket b
+        long[] bucketStart = new long[nb + 1];
+        long[][] next = new long[k][nb];
+        long m = 0;
+        for (int b = 0; b < nb; b++) {
+            bucketStart[b] = m;
+            for (int c = 0; c < k; c++) {
+                next[c][b] = m;
+                m += count[c][b];
+            }
+        }
+        bucketStart[nb] = m;
+        if (m > Integer.MAX_VALUE - 8) throw new IllegalStateException("Too many edges: " + m);
+        int[] tmpFrom = new int[(int) m], tmpTo = new int[(int) m];
+        double[] tmpW = new double[(int) m];
+        pool.invoke(new RangeTask(0, k, c -> {
+            EdgeBuffer p = parts[c];
+            long[] nx = next[c];
+            for (int i = 0; i < p.size; i++) {
+                int slot = (int) nx[p.from[i] / span]++;
+                tmpFrom[slot] = p.from[i];
+                tmpTo[slot] = p.to[i];
+                tmpW[slot] = p.w[i];
+            }
+            parts[c] = null;
+        }));
+        int[] off = new int[n + 1];
+        int[] tgt = new int[(int) m];
+        double[] wt = new double[(int) m];
+        pool.invoke(new RangeTask(0, nb, b -> {
+            int lo = b * span, hi = Math.min(n, lo + span);
+            int a = (int) bucketStart[b], z = (int) bucketStart[b + 1];
+            int[] deg = new int[hi - lo + 1];
+            for (int i = a; i < z; i++) deg[tmpFrom[i] - lo + 1]++;
+            deg[0] = a;
+            for (int u = 0; u < hi - lo; u++) deg[u + 1] += deg[u];
+            System.arraycopy(deg, 0, off, lo, hi - lo);
+            for (int i = a; i < z; i++) {
+                int slot = deg[tmpFrom[i] - lo]++;
+                tgt[slot] = tmpTo[i];
+                wt[slot] = tmpW[i];
+            }
+        }));
+        off[n] = (int) m;
+        return new CsrGraph(n, directed, off, tgt, wt);
+    }
+    // Runs body(i) for every i in [lo, hi), one leaf task per index.
+    private static final class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        final int lo, hi;
+        final IntConsumer body;
+        RangeTask(int lo, int hi, IntConsumer body) {
+            this.lo = lo;
+            this.hi = hi;
+            this.body = body;
+        }
+        @Override
+        protected void compute() {
+            if (hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new RangeTask(lo, mid, body), new RangeTask(mid, hi, body));
+            } else if (hi > lo) {
+                body.accept(lo);
+            }
+        }
+    }
+    private void grow() {
+        int cap = size + (size >> 1);
+        if (cap < 0 || cap > Integer.MAX_VALUE - 8) cap = Integer.MAX_VALUE - 8;
+        if (cap <= size) throw new IllegalStateException("Too many edges: " + size);
+        from = Arrays.copyOf(from, cap);
+        to = Arrays.copyOf(to, cap);
+        w = Arrays.copyOf(w, cap);
+    }
+}
@@ -0,0 +1,302 @@
+package util;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+/**
+ * Loads plain-text edge lists: one edge "u v [w]" per line, fields separated by spaces
+ * or tabs, w defaulting to 1. Blank lines and lines starting with '#' or '%' are
+ * skipped; "\r\n" line ends are accepted.
+ *
+ * The file is split at newline boundaries into chunks of about chunkBytes, each chunk is
+ * memory-mapped and parsed on a ForkJoinPool straight from the mapped bytes (hand-written
+ * int / double parsing, no per-line objects), and the per-chunk edge buffers are merged
+ * into one CSR in file order (also on the pool, see EdgeBuffer.toCsr), so every vertex
+ * keeps its edges in the order they appear, as with GraphLoader's JSON path.
+ *
+ * A weight whose decimal digits form an integer <= 2^53 and whose decimal exponent is
+ * within +-22 is converted with one multiply or divide, which is exact because both
+ * operands are (a double holds every power of ten up to 1e22); anything else (longer
+ * mantissas, inf / nan spellings) falls back to Double.parseDouble, so weights always
+ * equal Double.parseDouble's.
+ *
+ * n defaults to the largest vertex id + 1; gzip input is not supported (it cannot be mapped).
+ */
+public final class EdgeListLoader {
+    /** File extensions GraphLoader.loadDataset treats as edge lists. */
+    public static final String[] EXTENSIONS = {".tsv", ".txt", ".edges", ".el"};
+    /** Bytes read per step while moving a chunk boundary to the next newline. */
+    private static final int PROBE = 1 << 12;
+    private static final double[] POW10 = new double[23];
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) POW10[i] = POW10[i - 1] * 10;
+    }
+
+    private final ForkJoinPool pool;
+    private boolean directed = true;
+    private int n = -1;
+    private Integer source;
+    private String weightModel = "edge";
+    private long chunkBytes = 1 << 24;
+
+    public EdgeListLoader() {
+        this(ForkJoinPool.commonPool());
+    }
+    public EdgeListLoader(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+    public EdgeListLoader directed(boolean d) {
+        directed = d;
+        return this;
+    }
+    /** Vertex count; -1 (default) uses the largest id in the file + 1. */
+    public EdgeListLoader vertexCount(int count) {
+        if (count < -1) throw new IllegalArgumentException("vertexCount must be >= -1: " + count);
+        n = count;
+        return this;
+    }
+    /** Source recorded in the dataset (default null). */
+    public EdgeListLoader source(Integer s) {
+        if (s != null && s < 0) throw new IllegalArgumentException("source must be non-negative: " + s);
+        source = s;
+        return this;
+    }
+    public EdgeListLoader weightModel(String wm) {
+        if (wm == null) throw new IllegalArgumentException("weightModel must not be null");
+        weightModel = wm;
+        return this;
+    }
+    /** Target chunk size in bytes (default 16 MB, at most 1 GB). */
+    public EdgeListLoader chunkBytes(long bytes) {
+        if (bytes < 1 || bytes > 1 << 30) throw new IllegalArgumentException("chunkBytes must be in [1, 2^30]: " + bytes);
+        chunkBytes = bytes;
+        return this;
+    }
+
+    /** True if the path has one of the edge-list EXTENSIONS. */
+    public static boolean isEdgeList(Path path) {
+        String name = path.getFileName().toString().toLowerCase();
+        for (String ext : EXTENSIONS) if (name.endsWith(ext)) return true;
+        return false;
+    }
+
+    public GraphLoader.Dataset load(Path path) throws IOException {
+        String name = path.toString();
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = ch.size();
+            int k = (int) Math.max(1, (size + chunkBytes - 1) / chunkBytes);
+            long[] bounds = new long[k + 1];
+            bounds[k] = size;
+            for (int i = 1; i < k; i++) bounds[i] = Math.max(bounds[i - 1], lineStart(ch, i * (size / k), size));
+            Chunk[] chunks = new Chunk[k];
+            for (int i = 0; i < k; i++) chunks[i] = new Chunk(ch, name, bounds[i], bounds[i + 1]);
+            pool.invoke(new ParseTask(chunks, 0, k));
+            EdgeBuffer[] parts = new EdgeBuffer[k];
+            int max = -1;
+            for (int i = 0; i < k; i++) {
+                if (chunks[i].error != null) throw chunks[i].error;
+                parts[i] = chunks[i].edges;
+                max = Math.max(max, chunks[i].maxVertex);
+            }
+            int count = n >= 0 ? n : max + 1;
+            if (source != null && source >= count) {
+                throw new IOException(name + ": source " + source + " out of range for n=" + count);
+            }
+            return new GraphLoader.Dataset(EdgeBuffer.toCsr(parts, count, directed, pool), source, weightModel, directed);
+        }
+    }
+
+    // First byte after the first '\n' at or after pos (size if there is none).
+    private static long lineStart(FileChannel ch, long pos, long size) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(PROBE);
+        while (pos < size) {
+            b.clear();
+            int r = ch.read(b, pos);
+            if (r <= 0) break;
+            for (int i = 0; i < r; i++) if (b.get(i) == '\n') return pos + i + 1;
+            pos += r;
+        }
+        return size;
+    }
+
+    private static final class ParseTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        final Chunk[] chunks;
+        final int lo, hi;
+        ParseTask(Chunk[] chunks, int lo, int hi) {
+            this.chunks = chunks;
+            this.lo = lo;
+            this.hi = hi;
+        }
+        @Override
+        protected void compute() {
+            if (hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new ParseTask(chunks, lo, mid), new ParseTask(chunks, mid, hi));
+                return;
+            }
+            try {
+                chunks[lo].parse();
+            } catch (IOException e) {
+                chunks[lo].error = e;
+            }
+        }
+    }
+
+    /** One newline-aligned byte range [start, end) of the file and its parsed edges. */
+    private static final class Chunk {
+        final FileChannel ch;
+        final String name;
+        final long start, end;
+        EdgeBuffer edges;
+        int maxVertex = -1;
+        IOException error;
+        private MappedByteBuffer buf;
+        private int pos, limit;
+
+        Chunk(FileChannel ch, String name, long start, long end) {
+            this.ch = ch;
+            this.name = name;
+            this.start = start;
+            this.end = end;
+        }
+
+        void parse() throws IOException {
+            limit = (int) (end - start);
+            // ~12 bytes per line is a short "u v w" line; EdgeBuffer grows if it is shorter
+            edges = new EdgeBuffer(limit / 12);
+            if (limit == 0) return;
+            buf = ch.map(FileChannel.MapMode.READ_ONLY, start, limit);
+            pos = 0;
+            while (pos < limit) {
+                skipBlanks();
+                if (pos == limit) break;
+                byte c = buf.get(pos);
+                if (c == '\n') {
+                    pos++;
+                    continue;
+                }
+                if (c == '#' || c == '%') {
+                    while (pos < limit && buf.get(pos) != '\n') pos++;
+                    continue;
+                }
+                int u = parseInt();
+                skipBlanks();
+                int v = parseInt();
+                skipBlanks();
+                double w = 1.0;
+                if (pos < limit && buf.get(pos) != '\n') {
+                    w = parseDouble();
+                    skipBlanks();
+                    if (pos < limit && buf.get(pos) != '\n') throw malformed("expected end of line");
+                }
+                edges.add(u, v, w);
+                if (u > maxVertex) maxVertex = u;
+                if (v > maxVertex) maxVertex = v;
+            }
+            buf = null;
+        }
+
+        private void skipBlanks() {
+            while (pos < limit) {
+                byte c = buf.get(pos);
+                if (c != ' ' && c != '\t' && c != '\r') return;
+                pos++;
+            }
+        }
+
+        private int parseInt() throws IOException {
+            int p = pos;
+            long x = 0;
+            while (p < limit) {
+                int d = buf.get(p) - '0';
+                if (d < 0 || d > 9) break;
+                x = x * 10 + d;
+                if (x > Integer.MAX_VALUE) throw malformed("vertex id too large");
+                p++;
+            }
+            if (p == pos) throw malformed("expected a vertex id");
+            pos = p;
+            return (int) x;
+        }
+
+        private double parseDouble() throws IOException {
+            int p = pos, tokenStart = pos;
+            boolean neg = false;
+            byte c = buf.get(p);
+            if (c == '-' || c == '+') {
+                neg = c == '-';
+                p++;
+            }
+            long mant = 0;
+            int exp = 0, digits = 0;
+            boolean exact = true;
+            for (; p < limit; p++) {
+                int d = buf.get(p) - '0';
+                if (d < 0 || d > 9) break;
+                if (mant < 922_337_203_685_477_580L) mant = mant * 10 + d;
+                else { exact = false; exp++; }
+                digits++;
+            }
+            if (p < limit && buf.get(p) == '.') {
+                for (p++; p < limit; p++) {
+                    int d = buf.get(p) - '0';
+                    if (d < 0 || d > 9) break;
+                    if (mant < 922_337_203_685_477_580L) { mant = mant * 10 + d; exp--; }
+                    else exact = false;
+                    digits++;
+                }
+            }
+            if (digits > 0 && p < limit && (buf.get(p) == 'e' || buf.get(p) == 'E')) {
+                p++;
+                boolean eneg = false;
+                if (p < limit && (buf.get(p) == '-' || buf.get(p) == '+')) eneg = buf.get(p++) == '-';
+                int e = 0, ed = 0;
+                for (; p < limit; p++) {
+                    int d = buf.get(p) - '0';
+                    if (d < 0 || d > 9) break;
+                    if (e < 100_000) e = e * 10 + d;
+                    ed++;
+                }
+                if (ed == 0) return fallback(tokenStart);
+                exp += eneg ? -e : e;
+            }
+            if (digits == 0 || (p < limit && !isDelimiter(buf.get(p)))) return fallback(tokenStart);
+            pos = p;
+            if (!exact || mant > 1L << 53 || exp < -22 || exp > 22) return fallback(tokenStart);
+            double x = mant;
+            x = exp >= 0 ? x * POW10[exp] : x / POW10[-exp];
+            return neg ? -x : x;
+        }
+
+        // Double.parseDouble over the token at tokenStart (rare: allocates a String)
+        private double fallback(int tokenStart) throws IOException {
+            int p = tokenStart;
+            while (p < limit && !isDelimiter(buf.get(p))) p++;
+            byte[] tok = new byte[p - tokenStart];
+            buf.get(tokenStart, tok);
+            try {
+                double x = Double.parseDouble(new String(tok, StandardCharsets.US_ASCII));
+                pos = p;
+                return x;
+            } catch (NumberFormatException e) {
+                pos = tokenStart;
+                throw malformed("expected a weight");
+            }
+        }
+
+        private static boolean isDelimiter(byte c) {
+            return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+        }
+
+        private IOException malformed(String what) {
+            return new IOException(name + ": " + what + " at byte " + (start + pos));
+        }
+    }
+}
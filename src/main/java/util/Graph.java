@@ -2,10 +2,12 @@ package util;
 import java.util.ArrayList;
 import java.util.List;
 /**
- * Lightweight directed graph with adjacency lists.
- * Used across SCC, Topo, and DAG shortest/longest algorithms.
+ * Lightweight mutable directed graph with adjacency lists.
+ * Convenient for building small graphs by hand; algorithms read it through
+ * GraphView, backed by a CSR snapshot rebuilt lazily after addEdge. Degree arrays
+ * and the transpose are cached on that snapshot, so addEdge invalidates them too.
  */
-public class Graph {
+public class Graph implements GraphView {
     /** Number of vertices. */
     public final int n;
     /** True if the graph is directed. */
@@ -14,6 +16,7 @@ public class Graph {
     public final List<Edge> edges = new ArrayList<>();
     /** Adjacency lists: adj[u] contains outgoing edges from u. */
     public final List<List<Edge>> adj;
+    private CsrGraph csr;
     public Graph(int n, boolean directed) {
         this.n = n;
         this.directed = directed;
@@ -27,15 +30,32 @@ public class Graph {
         Edge e = new Edge(u, v, w);
         edges.add(e);
         adj.get(u).add(e);
+        csr = null;
     }
     /** Returns indegree of vertex v (counts incoming edges). */
     public int indegree(int v) {
-        int d = 0;
-        for (int u = 0; u < n; u++) {
-            for (Edge e : adj.get(u)) {
-                if (e.to == v) d++;
+        return inDegree(v);
+    }
+    /** CSR snapshot of the current edges (cached until the next addEdge). */
+    public CsrGraph toCsr() {
+        CsrGraph c = csr;
+        if (c == null) {
+            int m = edges.size();
+            int[] from = new int[m], to = new int[m];
+            double[] w = new double[m];
+            for (int i = 0; i < m; i++) {
+                Edge e = edges.get(i);
+                from[i] = e.from; to[i] = e.to; w[i] = e.weight;
             }
+            c = csr = CsrGraph.fromEdges(n, directed, m, from, to, w);
         }
-        return d;
+        return c;
     }
+    @Override public int vertexCount() { return n; }
+    @Override public int edgeCount() { return edges.size(); }
+    @Override public int offset(int u) { return toCsr().offset(u); }
+    @Override public int target(int e) { return toCsr().target(e); }
+    @Override public double weight(int e) { return toCsr().weight(e); }
+    @Override public int inDegree(int v) { return toCsr().inDegree(v); }
+    @Override public CsrGraph transpose() { return toCsr().transpose(); }
 }
@@ -0,0 +1,250 @@
+package util;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.zip.GZIPOutputStream;
+/**
+ * Deterministic synthetic graphs for scale testing: the same (shape, n, m, seed and
+ * options) always yields the same edge sequence.
+ *
+ * Shapes (exactly m edges, integer weights 1..maxWeight):
+ *  - RANDOM        : uniform random edges; one giant SCC plus small satellites
+ *  - SCC_CHAIN     : cycles of componentSize vertices, each linked to the next one, plus
+ *                    random forward edges to the next 4 cycles (a chain of SCCs)
+ *  - PLANTED_CYCLES: random DAG (edges go from lower to higher id) with plantedCycles
+ *                    short cycles of 2..componentSize vertices; overlapping cycles merge
+ *  - POWER_LAW     : heavy-tailed out-degree, proportional to about (r + 1)^(-2/3) for
+ *                    vertex r; targets uniform
+ *  - DEEP_CHAIN    : one path 0 -> 1 -> ... -> n-1 plus short forward skips (deep DAG)
+ * With shuffle(true) ids are relabeled by a seeded permutation (n ints), so id order
+ * no longer gives a topological order.
+ *
+ * Edges are produced one at a time into an EdgeSink; writeJson() streams them in the
+ * GraphLoader format, so the graph itself is never held in memory.
+ */
+public final class GraphGenerator {
+    /** Receives generated edges in order. */
+    @FunctionalInterface
+    public interface EdgeSink {
+        void edge(int u, int v, double w) throws IOException;
+    }
+
+    public enum Shape {
+        RANDOM("random"), SCC_CHAIN("sccChain"), PLANTED_CYCLES("plantedCycles"),
+        POWER_LAW("powerLaw"), DEEP_CHAIN("deepChain");
+        public final String id;
+        Shape(String id) {
+            this.id = id;
+        }
+        /** Looks a shape up by its id ("sccChain") or enum name ("SCC_CHAIN"). */
+        public static Shape byName(String name) {
+            for (Shape s : values()) {
+                if (s.id.equalsIgnoreCase(name) || s.name().equalsIgnoreCase(name)) return s;
+            }
+            throw new IllegalArgumentException("Unknown shape: " + name);
+        }
+    }
+
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final int FORWARD_BLOCKS = 4, SKIP = 32;
+
+    private final Shape shape;
+    private final int n;
+    private final long m;
+    private final long seed;
+    private int componentSize = 8;
+    private int plantedCycles = -1;
+    private int maxWeight = 100;
+    private boolean shuffle;
+
+    /** n vertices, exactly m edges. */
+    public GraphGenerator(Shape shape, int n, long m, long seed) {
+        if (n < 2) throw new IllegalArgumentException("n must be at least 2: " + n);
+        if (m < 0) throw new IllegalArgumentException("m must be non-negative: " + m);
+        this.shape = shape;
+        this.n = n;
+        this.m = m;
+        this.seed = seed;
+    }
+    /** Cycle size for SCC_CHAIN, largest cycle for PLANTED_CYCLES (default 8). */
+    public GraphGenerator componentSize(int k) {
+        if (k < 2 || k > n) throw new IllegalArgumentException("componentSize must be in [2, n]: " + k);
+        componentSize = k;
+        return this;
+    }
+    /** Number of cycles planted by PLANTED_CYCLES (default n / 64). */
+    public GraphGenerator plantedCycles(int c) {
+        if (c < 0) throw new IllegalArgumentException("plantedCycles must be non-negative: " + c);
+        plantedCycles = c;
+        return this;
+    }
+    public GraphGenerator maxWeight(int w) {
+        if (w < 1) throw new IllegalArgumentException("maxWeight must be positive: " + w);
+        maxWeight = w;
+        return this;
+    }
+    public GraphGenerator shuffle(boolean on) {
+        shuffle = on;
+        return this;
+    }
+    public int vertexCount() { return n; }
+    public long edgeCount() { return m; }
+    /** Source written to JSON: the first vertex of the chain / DAG order. */
+    public int source() { return shuffle ? permutation()[0] : 0; }
+
+    /** Smallest m this shape accepts (the edges that fix its SCC structure). */
+    public long minEdges() {
+        switch (shape) {
+            case SCC_CHAIN: {
+                int blocks = (n + componentSize - 1) / componentSize;
+                int last = n - (blocks - 1) * componentSize;
+                return (long) (blocks - 1) * componentSize + (last > 1 ? last : 0) + blocks - 1;
+            }
+            case DEEP_CHAIN: return n - 1;
+            default: return 0;
+        }
+    }
+
+    /** Emits the m edges into out. */
+    public void generate(EdgeSink out) throws IOException {
+        if (m < minEdges()) {
+            throw new IllegalArgumentException(shape.id + " needs at least " + minEdges() + " edges for n=" + n);
+        }
+        SplittableRandom rnd = new SplittableRandom(seed);
+        Emitter e = new Emitter(out, rnd, shuffle ? permutation() : null);
+        switch (shape) {
+            case RANDOM:
+                while (e.count < m) e.emit(rnd.nextInt(n), rnd.nextInt(n));
+                break;
+            case SCC_CHAIN: {
+                int k = componentSize, blocks = (n + k - 1) / k;
+                for (int b = 0; b < blocks; b++) {
+                    int s = b * k, len = Math.min(k, n - s);
+                    for (int i = 0; i < len && len > 1; i++) e.emit(s + i, s + (i + 1) % len);
+                    if (b > 0) e.emit(s - 1 - rnd.nextInt(k), s + rnd.nextInt(len));
+                }
+                int lastStart = (blocks - 1) * k;
+                while (e.count < m) {
+                    int u = rnd.nextInt(Math.max(lastStart, 1));
+                    int tb = Math.min(blocks - 1, u / k + 1 + rnd.nextInt(FORWARD_BLOCKS)), ts = tb * k;
+                    e.emit(u, ts + rnd.nextInt(Math.min(k, n - ts)));
+                }
+                break;
+            }
+            case PLANTED_CYCLES: {
+                int cycles = plantedCycles >= 0 ? plantedCycles : n / 64;
+                for (int c = 0; c < cycles; c++) {
+                    int len = 2 + rnd.nextInt(componentSize - 1);
+                    if (e.count + len > m) break;
+                    int a = rnd.nextInt(n - len + 1);
+                    for (int i = 0; i + 1 < len; i++) e.emit(a + i, a + i + 1);
+                    e.emit(a + len - 1, a);
+                }
+                while (e.count < m) {
+                    int u = rnd.nextInt(n), v = rnd.nextInt(n - 1);
+                    if (v >= u) v++;
+                    e.emit(Math.min(u, v), Math.max(u, v));
+                }
+                break;
+            }
+            case POWER_LAW:
+                // P(rank < x) = (x / n)^(1/3): density, hence out-degree, ~ x^(-2/3)
+                while (e.count < m) {
+                    double r = rnd.nextDouble();
+                    e.emit((int) (n * r * r * r), rnd.nextInt(n));
+                }
+                break;
+            case DEEP_CHAIN:
+                for (int v = 0; v + 1 < n; v++) e.emit(v, v + 1);
+                while (e.count < m) {
+                    int u = rnd.nextInt(n - 1);
+                    e.emit(u, Math.min(n - 1, u + 1 + rnd.nextInt(SKIP)));
+                }
+                break;
+            default:
+                throw new AssertionError(shape);
+        }
+    }
+
+    /** Collects the edges into a CSR graph (requires m to fit in an int). */
+    public CsrGraph toCsr() {
+        EdgeBuffer b = new EdgeBuffer((int) Math.min(m, 1 << 24));
+        try {
+            generate(b::add);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);   // EdgeBuffer does no I/O
+        }
+        return b.toCsr(n, true);
+    }
+    public GraphLoader.Dataset dataset() {
+        return new GraphLoader.Dataset(toCsr(), source(), "edge", true);
+    }
+
+    /** Writes the graph as a GraphLoader JSON document; gzip-compressed if the name ends in ".gz". */
+    public void writeJson(Path path) throws IOException {
+        try (OutputStream raw = new BufferedOutputStream(Files.newOutputStream(path), 1 << 16);
+             OutputStream out = path.toString().endsWith(".gz") ? new GZIPOutputStream(raw, 1 << 16) : raw) {
+            writeJson(out);
+        }
+    }
+    /** Streams the JSON document to out (not closed). */
+    public void writeJson(OutputStream out) throws IOException {
+        try (JsonGenerator j = JSON.createGenerator(out, JsonEncoding.UTF8)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            j.writeStartObject();
+            j.writeBooleanField("directed", true);
+            j.writeNumberField("n", n);
+            j.writeNumberField("source", source());
+            j.writeStringField("weight_model", "edge");
+            j.writeArrayFieldStart("edges");
+            generate((u, v, w) -> {
+                j.writeStartObject();
+                j.writeNumberField("u", u);
+                j.writeNumberField("v", v);
+                j.writeNumberField("w", (int) w);
+                j.writeEndObject();
+            });
+            j.writeEndArray();
+            j.writeEndObject();
+        }
+    }
+
+    // Seeded Fisher-Yates shuffle, independent of the edge stream.
+    private int[] permutation() {
+        int[] id = new int[n];
+        for (int i = 0; i < n; i++) id[i] = i;
+        SplittableRandom rnd = new SplittableRandom(~seed);
+        for (int i = n - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1), t = id[i];
+            id[i] = id[j];
+            id[j] = t;
+        }
+        return id;
+    }
+
+    // Relabels, draws the weight and counts each edge.
+    private final class Emitter {
+        private final EdgeSink out;
+        private final SplittableRandom rnd;
+        private final int[] id;
+        long count;
+        Emitter(EdgeSink out, SplittableRandom rnd, int[] id) {
+            this.out = out;
+            this.rnd = rnd;
+            this.id = id;
+        }
+        void emit(int u, int v) throws IOException {
+            int w = 1 + rnd.nextInt(maxWeight);
+            if (id != null) { u = id[u]; v = id[v]; }
+            out.edge(u, v, w);
+            count++;
+        }
+    }
+}
@@ -1,8 +1,14 @@
 package util;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import java.io.File;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
 /**
  * Loads graph datasets from JSON files.
  *
@@ -14,15 +20,21 @@ import java.io.IOException;
  *   "source": S,               // optional
  *   "weight_model": "edge"     // optional; defaults to "edge"
  * }
+ *
+ * Keys may appear in any order. The document is read with a streaming parser
+ * straight into primitive edge buffers (no JsonNode tree); gzip input is detected
+ * by its magic bytes and decompressed transparently. Files in BinaryGraphFormat
+ * are recognised the same way and memory-mapped instead of parsed; plain-text edge
+ * lists (EdgeListLoader.EXTENSIONS) go to EdgeListLoader.
  */
 public final class GraphLoader {
     /** Immutable dataset bundle. */
     public static final class Dataset {
-        public final Graph graph;
+        public final GraphView graph;
         public final Integer source;      // may be null
         public final String weightModel;  // e.g., "edge"
         public final boolean directed;
-        public Dataset(Graph graph,
+        public Dataset(GraphView graph,
                        Integer source,
                        String weightModel,
                        boolean directed) {
@@ -32,32 +44,81 @@ public final class GraphLoader {
             this.directed = directed;
         }
     }
+    private static final JsonFactory JSON = JsonFactory.builder().disable(StreamReadFeature.AUTO_CLOSE_SOURCE).build();
     private GraphLoader() {}
-    /** Reads a dataset JSON file and constructs a Graph + metadata. */
+    /** Reads a dataset file (JSON, optionally gzip-compressed; binary; or edge list) and constructs a CSR graph + metadata. */
     public static Dataset loadDataset(String path) throws IOException {
-        ObjectMapper mapper = new ObjectMapper();
-        JsonNode root = mapper.readTree(new File(path));
-
-        boolean directed = root.has("directed")
-                ? root.get("directed").asBoolean()
-                : true;
-        int n = root.get("n").asInt();
-        Graph g = new Graph(n, directed);
-
-        JsonNode edges = root.get("edges");
-        if (edges != null && edges.isArray()) {
-            for (JsonNode e : edges) {
-                int u = e.get("u").asInt();
-                int v = e.get("v").asInt();
-                double w = e.get("w").asDouble();
-                g.addEdge(u, v, w);
+        if (BinaryGraphFormat.isBinary(Path.of(path))) {
+            return BinaryGraphFormat.open(Path.of(path)).dataset;
+        }
+        if (EdgeListLoader.isEdgeList(Path.of(path))) {
+            return new EdgeListLoader().load(Path.of(path));
+        }
+        try (InputStream in = openMaybeGzip(new FileInputStream(path))) {
+            return loadDataset(in, path);
+        }
+    }
+    /** Reads a dataset JSON document from a stream (not closed); name is used in error messages. */
+    public static Dataset loadDataset(InputStream in, String name) throws IOException {
+        boolean directed = true;
+        int n = -1;
+        Integer source = null;
+        String wm = "edge";
+        EdgeBuffer edges = new EdgeBuffer();
+        try (JsonParser p = JSON.createParser(in)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException(name + ": expected a JSON object");
+            }
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken t = p.nextToken();
+                switch (field) {
+                    case "directed": directed = p.getValueAsBoolean(true); break;
+                    case "n": n = p.getValueAsInt(-1); break;
+                    case "source": source = t == JsonToken.VALUE_NULL ? null : p.getValueAsInt(); break;
+                    case "weight_model": wm = p.getValueAsString("edge"); break;
+                    case "edges": readEdges(p, edges, name); break;
+                    default: p.skipChildren();
+                }
             }
         }
-        Integer source = root.has("source") ? root.get("source").asInt() : null;
-        String wm = root.has("weight_model")
-                ? root.get("weight_model").asText()
-                : "edge";
-
-        return new Dataset(g, source, wm, directed);
+        if (n < 0) throw new IOException(name + ": missing or invalid \"n\"");
+        return new Dataset(edges.toCsr(n, directed), source, wm, directed);
+    }
+    // edges: [{"u":..,"v":..,"w":..}, ...] with keys in any order
+    private static void readEdges(JsonParser p, EdgeBuffer out, String name) throws IOException {
+        if (p.currentToken() == JsonToken.VALUE_NULL) return;
+        if (p.currentToken() != JsonToken.START_ARRAY) {
+            throw new IOException(name + ": \"edges\" must be an array");
+        }
+        for (JsonToken t = p.nextToken(); t != JsonToken.END_ARRAY; t = p.nextToken()) {
+            if (t != JsonToken.START_OBJECT) {
+                throw new IOException(name + ": edge #" + out.size() + " is not an object");
+            }
+            int u = -1, v = -1;
+            double w = Double.NaN;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String key = p.currentName();
+                p.nextToken();
+                switch (key) {
+                    case "u": u = p.getValueAsInt(-1); break;
+                    case "v": v = p.getValueAsInt(-1); break;
+                    case "w": w = p.getValueAsDouble(); break;
+                    default: p.skipChildren();
+                }
+            }
+            if (u < 0 || v < 0 || Double.isNaN(w)) {
+                throw new IOException(name + ": edge #" + out.size() + " needs \"u\", \"v\" and \"w\"");
+            }
+            out.add(u, v, w);
+        }
+    }
+    /** Wraps a stream in GZIPInputStream if it starts with the gzip magic bytes. */
+    static InputStream openMaybeGzip(InputStream raw) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(raw, 1 << 16);
+        in.mark(2);
+        int b0 = in.read(), b1 = in.read();
+        in.reset();
+        return b0 == 0x1f && b1 == 0x8b ? new GZIPInputStream(in, 1 << 16) : in;
     }
 }
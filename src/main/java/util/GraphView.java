@@ -0,0 +1,29 @@
+package util;
+/**
+ * Read-only directed graph in compressed sparse row (CSR) form.
+ * Outgoing edges of u occupy edge indices [offset(u), offset(u + 1)).
+ * Consumed natively by SCC, Topo, and DAG shortest/longest algorithms.
+ */
+public interface GraphView {
+    /** Number of vertices. */
+    int vertexCount();
+    /** Number of edges. */
+    int edgeCount();
+    /** Index of the first outgoing edge of u; offset(vertexCount()) == edgeCount(). */
+    int offset(int u);
+    /** Head vertex of edge e. */
+    int target(int e);
+    /** Weight of edge e. */
+    double weight(int e);
+    /** Number of outgoing edges of u. */
+    default int outDegree(int u) {
+        return offset(u + 1) - offset(u);
+    }
+    /** Number of incoming edges of v; O(1) after a one-time O(V + E) count that is cached. */
+    int inDegree(int v);
+    /**
+     * Reverse graph (edge u -> v (w) becomes v -> u (w)), built once and cached.
+     * Iterating transpose() from v enumerates v's predecessors for backward passes.
+     */
+    GraphView transpose();
+}
@@ -0,0 +1,117 @@
+package util;
+import java.util.Arrays;
+/**
+ * Binary min-heap of int items 0..capacity-1 with double keys, ordered by (key, item) so
+ * equal keys pop in ascending item order (deterministic). Each item is in the heap at
+ * most once; a position index gives O(1) contains() and O(log n) changeKey() / remove().
+ *
+ * All storage is allocated up front: add / poll / changeKey never allocate.
+ */
+public final class IndexedMinHeap {
+    private final int[] heap;      // heap slot -> item
+    private final int[] where;     // item -> heap slot, or -1
+    private final double[] key;    // item -> key (valid while in the heap)
+    private int size;
+
+    public IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        where = new int[capacity];
+        key = new double[capacity];
+        Arrays.fill(where, -1);
+    }
+
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+    public int capacity() { return heap.length; }
+    public boolean contains(int item) { return where[item] >= 0; }
+    /** Key of an item currently in the heap. */
+    public double key(int item) { return key[item]; }
+
+    /** Inserts item; it must not be in the heap. */
+    public void add(int item, double k) {
+        if (where[item] >= 0) throw new IllegalArgumentException("Item already in heap: " + item);
+        key[item] = k;
+        heap[size] = item;
+        where[item] = size;
+        siftUp(size++);
+    }
+    /** Inserts item, or changes its key if already present. */
+    public void addOrUpdate(int item, double k) {
+        if (where[item] >= 0) changeKey(item, k);
+        else add(item, k);
+    }
+    /** Moves an item already in the heap to a new key (up or down). */
+    public void changeKey(int item, double k) {
+        int i = where[item];
+        if (i < 0) throw new IllegalArgumentException("Item not in heap: " + item);
+        double old = key[item];
+        key[item] = k;
+        if (k < old) siftUp(i);
+        else siftDown(i);
+    }
+    /** Smallest item without removing it; the heap must not be empty. */
+    public int peek() {
+        if (size == 0) throw new IllegalStateException("Heap is empty");
+        return heap[0];
+    }
+    /** Removes and returns the smallest item. */
+    public int poll() {
+        int top = peek();
+        removeAt(0);
+        return top;
+    }
+    /** Removes item if present; returns whether it was. */
+    public boolean remove(int item) {
+        int i = where[item];
+        if (i < 0) return false;
+        removeAt(i);
+        return true;
+    }
+    /** Empties the heap in O(size). */
+    public void clear() {
+        for (int i = 0; i < size; i++) where[heap[i]] = -1;
+        size = 0;
+    }
+
+    private void removeAt(int i) {
+        int item = heap[i];
+        where[item] = -1;
+        int last = heap[--size];
+        if (i == size) return;
+        heap[i] = last;
+        where[last] = i;
+        siftDown(i);
+        if (heap[i] == last) siftUp(i);
+    }
+    private boolean less(int a, int b) {
+        double ka = key[a], kb = key[b];
+        return ka < kb || (ka == kb && a < b);
+    }
+    private void siftUp(int i) {
+        int item = heap[i];
+        while (i > 0) {
+            int p = (i - 1) >>> 1, pi = heap[p];
+            if (!less(item, pi)) break;
+            heap[i] = pi;
+            where[pi] = i;
+            i = p;
+        }
+        heap[i] = item;
+        where[item] = i;
+    }
+    private void siftDown(int i) {
+        int item = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int c = 2 * i + 1, r = c + 1;
+            if (r < size && less(heap[r], heap[c])) c = r;
+            int ci = heap[c];
+            if (!less(ci, item)) break;
+            heap[i] = ci;
+            where[ci] = i;
+            i = c;
+        }
+        heap[i] = item;
+        where[item] = i;
+    }
+}
@@ -0,0 +1,40 @@
+package util;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+/**
+ * CSR graph view over memory-mapped buffers (see BinaryGraphFormat).
+ * Nothing is copied onto the heap; reads go straight to the page cache.
+ */
+public final class MappedGraph implements GraphView {
+    private final int n;
+    private final IntBuffer offsets;
+    private final IntBuffer targets;
+    private final DoubleBuffer weights;
+    private volatile int[] inDeg;
+    private volatile CsrGraph transpose;
+    MappedGraph(int n, IntBuffer offsets, IntBuffer targets, DoubleBuffer weights) {
+        this.n = n;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+    @Override public int vertexCount() { return n; }
+    @Override public int edgeCount() { return offsets.get(n); }
+    @Override public int offset(int u) { return offsets.get(u); }
+    @Override public int target(int e) { return targets.get(e); }
+    @Override public double weight(int e) { return weights.get(e); }
+    /** Cached on the heap on first use. */
+    @Override
+    public int inDegree(int v) {
+        int[] d = inDeg;
+        if (d == null) inDeg = d = CsrGraph.countInDegrees(this);
+        return d[v];
+    }
+    /** Built on the heap on first use. */
+    @Override
+    public CsrGraph transpose() {
+        CsrGraph t = transpose;
+        if (t == null) transpose = t = CsrGraph.transposeOf(this, true);
+        return t;
+    }
+}
@@ -2,13 +2,121 @@ package util;
 /**
  * Common metrics interface for instrumentation.
  * Tracks operation counters and wall-clock time using System.nanoTime().
+ *
+ * Counters are registered once, globally, via {@link #register(String)} and then
+ * addressed by int handle, so counting is an array increment rather than a map lookup.
+ * Hot loops should count into a local long and {@link #add(int, long)} it once.
+ *
+ * Timing is organised as named phases that may nest: begin("scc") ... begin("dfs")
+ * ... end() ... end() records "scc" and "scc/dfs" separately; repeated phases accumulate.
+ *
+ * Running with -Dmetrics.disabled=true makes every method a no-op; {@link #ENABLED}
+ * is a static final constant, so the JIT removes the guarded code entirely.
  */
-import java.util.*;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 public class Metrics {
-    private long startNs, elapsedNs; private final Map<String,Long> c=new HashMap<>();
-    public void start(){ startNs=System.nanoTime(); }
-    public void stop(){ elapsedNs=System.nanoTime()-startNs; }
-    public double timeMs(){ return elapsedNs/1_000_000.0; }
-    public void inc(String k){ c.put(k, c.getOrDefault(k,0L)+1); }
-    public long get(String k){ return c.getOrDefault(k,0L); }
+    /** False when started with -Dmetrics.disabled=true. */
+    public static final boolean ENABLED = !Boolean.getBoolean("metrics.disabled");
+
+    private static final Map<String, Integer> IDS = new HashMap<>();
+    private static String[] names = new String[16];
+
+    /** Returns the handle for counter k, registering it on first use. */
+    public static synchronized int register(String k) {
+        Integer id = IDS.get(k);
+        if (id == null) {
+            id = IDS.size();
+            if (id == names.length) names = Arrays.copyOf(names, id * 2);
+            names[id] = k;
+            IDS.put(k, id);
+        }
+        return id;
+    }
+    private static synchronized int lookup(String k) {
+        Integer id = IDS.get(k);
+        return id == null ? -1 : id;
+    }
+
+    private long[] c = new long[16];
+    private String[] phaseNames = new String[4];
+    private long[] phaseNs = new long[4];
+    private int phaseCount;
+    private int[] openPhase = new int[4];
+    private long[] openStartNs = new long[4];
+    private int depth;
+
+    /** Increments counter id by one. */
+    public void inc(int id) {
+        if (!ENABLED) return;
+        if (id >= c.length) grow(id);
+        c[id]++;
+    }
+    /** Adds delta to counter id. */
+    public void add(int id, long delta) {
+        if (!ENABLED) return;
+        if (id >= c.length) grow(id);
+        c[id] += delta;
+    }
+    /** Increments counter k by one (registers k on first use; prefer handles in loops). */
+    public void inc(String k) {
+        if (ENABLED) inc(register(k));
+    }
+    public long get(int id) {
+        return id < c.length ? c[id] : 0L;
+    }
+    public long get(String k) {
+        int id = lookup(k);
+        return id < 0 ? 0L : get(id);
+    }
+    private void grow(int id) {
+        c = Arrays.copyOf(c, Math.max(id + 1, c.length * 2));
+    }
+
+    /** Opens phase p, nested inside the currently open phase (if any). */
+    public void begin(String p) {
+        if (!ENABLED) return;
+        String full = depth == 0 ? p : phaseNames[openPhase[depth - 1]] + "/" + p;
+        int id = phaseId(full);
+        if (depth == openPhase.length) {
+            openPhase = Arrays.copyOf(openPhase, depth * 2);
+            openStartNs = Arrays.copyOf(openStartNs, depth * 2);
+        }
+        openPhase[depth] = id;
+        openStartNs[depth++] = System.nanoTime();
+    }
+    /** Closes the innermost open phase and accumulates its elapsed time. */
+    public void end() {
+        if (!ENABLED) return;
+        if (depth == 0) throw new IllegalStateException("end() without matching begin()");
+        depth--;
+        phaseNs[openPhase[depth]] += System.nanoTime() - openStartNs[depth];
+    }
+    /** Accumulated time of phase p ("outer/inner" for nested phases), in ms. */
+    public double timeMs(String p) {
+        for (int i = 0; i < phaseCount; i++) {
+            if (phaseNames[i].equals(p)) return phaseNs[i] / 1_000_000.0;
+        }
+        return 0.0;
+    }
+    /** Total time of all top-level phases, in ms. */
+    public double timeMs() {
+        long ns = 0;
+        for (int i = 0; i < phaseCount; i++) {
+            if (phaseNames[i].indexOf('/') < 0) ns += phaseNs[i];
+        }
+        return ns / 1_000_000.0;
+    }
+    private int phaseId(String full) {
+        for (int i = 0; i < phaseCount; i++) {
+            if (phaseNames[i].equals(full)) return i;
+        }
+        if (phaseCount == phaseNames.length) {
+            phaseNames = Arrays.copyOf(phaseNames, phaseCount * 2);
+            phaseNs = Arrays.copyOf(phaseNs, phaseCount * 2);
+        }
+        phaseNames[phaseCount] = full;
+        return phaseCount++;
+    }
 }
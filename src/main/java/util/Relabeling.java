@@ -0,0 +1,195 @@
+package util;
+import java.util.Arrays;
+/**
+ * Vertex renumbering for memory locality: DP and traversal loops that walk vertices in
+ * (roughly) increasing new id touch dist[] / parent[] / offsets[] sequentially instead of
+ * at random.
+ *
+ * Orders:
+ *  - TOPOLOGICAL: Kahn order (FIFO, sources by id); a DAG's topo order becomes 0..n-1
+ *  - BFS        : breadth-first over edges in both directions, components by smallest id
+ *  - RCM        : reverse Cuthill-McKee over the undirected graph: BFS from a
+ *                 minimum-degree vertex, neighbors by ascending degree, then reversed;
+ *                 keeps the ids of adjacent vertices close (small bandwidth)
+ *
+ * toNew[old] and toOld[new] are inverse permutations; apply() builds the renumbered graph
+ * (edges of each vertex sorted by new target), mapIds() translates vertex lists such as a
+ * topo order or source, and byOld() maps per-vertex results back to original ids.
+ */
+public final class Relabeling {
+    public enum Order {
+        TOPOLOGICAL("topo"), BFS("bfs"), RCM("rcm");
+        public final String id;
+        Order(String id) {
+            this.id = id;
+        }
+        /** Looks an order up by its id ("rcm") or enum name ("RCM"). */
+        public static Order byName(String name) {
+            for (Order o : values()) {
+                if (o.id.equalsIgnoreCase(name) || o.name().equalsIgnoreCase(name)) return o;
+            }
+            throw new IllegalArgumentException("Unknown order: " + name);
+        }
+    }
+
+    /** Forward permutation: original id -> new id. */
+    public final int[] toNew;
+    /** Inverse permutation: new id -> original id. */
+    public final int[] toOld;
+
+    private Relabeling(int[] toOld) {
+        int n = toOld.length;
+        int[] fwd = new int[n];
+        Arrays.fill(fwd, -1);
+        for (int i = 0; i < n; i++) {
+            int v = toOld[i];
+            if (v < 0 || v >= n || fwd[v] >= 0) throw new IllegalArgumentException("Not a permutation at " + i + ": " + v);
+            fwd[v] = i;
+        }
+        this.toOld = toOld;
+        this.toNew = fwd;
+    }
+
+    /** Relabeling that puts vertex order[i] at new id i. */
+    public static Relabeling fromOrder(int[] order) {
+        return new Relabeling(order.clone());
+    }
+
+    /** Computes the order on g; TOPOLOGICAL requires a DAG. */
+    public static Relabeling compute(GraphView g, Order order) {
+        switch (order) {
+            case TOPOLOGICAL: return new Relabeling(kahn(g));
+            case BFS: return new Relabeling(bfs(g, false));
+            case RCM: return new Relabeling(bfs(g, true));
+            default: throw new AssertionError(order);
+        }
+    }
+
+    public int size() {
+        return toOld.length;
+    }
+
+    /** g with every vertex v renamed toNew[v]; edges of each vertex sorted by new target, weights kept. */
+    public CsrGraph apply(GraphView g, boolean directed) {
+        int n = g.vertexCount(), m = g.edgeCount();
+        if (n != toOld.length) throw new IllegalArgumentException("Graph has " + n + " vertices, relabeling " + toOld.length);
+        int[] off = new int[n + 1];
+        int[] tgt = new int[m];
+        double[] wt = new double[m];
+        for (int u = 0; u < n; u++) {
+            int old = toOld[u], k = off[u];
+            for (int e = g.offset(old), end = g.offset(old + 1); e < end; e++, k++) {
+                tgt[k] = toNew[g.target(e)];
+                wt[k] = g.weight(e);
+            }
+            off[u + 1] = k;
+        }
+        // transposing twice visits tails in order, so every row comes out sorted by target
+        return CsrGraph.transposeOf(CsrGraph.transposeOf(new CsrGraph(n, directed, off, tgt, wt), directed), directed);
+    }
+
+    /** New ids of the given original vertices (e.g. a topo order). */
+    public int[] mapIds(int[] oldIds) {
+        int[] out = new int[oldIds.length];
+        for (int i = 0; i < out.length; i++) out[i] = toNew[oldIds[i]];
+        return out;
+    }
+
+    /** Per-vertex values indexed by new id, re-indexed by original id. */
+    public double[] byOld(double[] byNew) {
+        double[] out = new double[byNew.length];
+        for (int v = 0; v < out.length; v++) out[v] = byNew[toNew[v]];
+        return out;
+    }
+
+    /** Per-vertex vertex ids (e.g. a parent array) by new id, re-indexed and translated to original ids; -1 stays -1. */
+    public int[] idsByOld(int[] byNew) {
+        int[] out = new int[byNew.length];
+        for (int v = 0; v < out.length; v++) {
+            int p = byNew[toNew[v]];
+            out[v] = p < 0 ? p : toOld[p];
+        }
+        return out;
+    }
+
+    private static int[] kahn(GraphView g) {
+        int n = g.vertexCount();
+        int[] indeg = CsrGraph.countInDegrees(g);
+        int[] order = new int[n];
+        int head = 0, tail = 0;
+        for (int v = 0; v < n; v++) if (indeg[v] == 0) order[tail++] = v;
+        while (head < tail) {
+            int u = order[head++];
+            for (int e = g.offset(u), end = g.offset(u + 1); e < end; e++) {
+                int v = g.target(e);
+                if (--indeg[v] == 0) order[tail++] = v;
+            }
+        }
+        if (tail != n) throw new IllegalArgumentException("Graph has a cycle: topological relabeling needs a DAG");
+        return order;
+    }
+
+    // BFS over out- and in-edges. rcm: starts at minimum-degree vertices, enqueues the
+    // neighbors of each vertex by ascending degree, and reverses the final order.
+    private static int[] bfs(GraphView g, boolean rcm) {
+        int n = g.vertexCount();
+        GraphView t = g.transpose();
+        int[] order = new int[n];
+        boolean[] seen = new boolean[n];
+        int[] starts = new int[n];
+        if (rcm) {
+            long[] byDegree = new long[n];
+            for (int v = 0; v < n; v++) byDegree[v] = (long) degree(g, t, v) << 32 | v;
+            Arrays.sort(byDegree);
+            for (int i = 0; i < n; i++) starts[i] = (int) byDegree[i];
+        } else {
+            for (int i = 0; i < n; i++) starts[i] = i;
+        }
+        long[] scratch = rcm ? new long[16] : null;
+        int tail = 0;
+        for (int s : starts) {
+            if (seen[s]) continue;
+            seen[s] = true;
+            int head = tail;
+            order[tail++] = s;
+            while (head < tail) {
+                int u = order[head++], from = tail;
+                tail = enqueue(g, u, order, tail, seen);
+                tail = enqueue(t, u, order, tail, seen);
+                if (rcm && tail - from > 1) {
+                    int k = tail - from;
+                    if (scratch.length < k) scratch = new long[Math.max(k, 2 * scratch.length)];
+                    for (int i = 0; i < k; i++) {
+                        int v = order[from + i];
+                        scratch[i] = (long) degree(g, t, v) << 32 | v;
+                    }
+                    Arrays.sort(scratch, 0, k);
+                    for (int i = 0; i < k; i++) order[from + i] = (int) scratch[i];
+                }
+            }
+        }
+        if (rcm) {
+            for (int i = 0, j = n - 1; i < j; i++, j--) {
+                int x = order[i];
+                order[i] = order[j];
+                order[j] = x;
+            }
+        }
+        return order;
+    }
+
+    private static int enqueue(GraphView g, int u, int[] order, int tail, boolean[] seen) {
+        for (int e = g.offset(u), end = g.offset(u + 1); e < end; e++) {
+            int v = g.target(e);
+            if (!seen[v]) {
+                seen[v] = true;
+                order[tail++] = v;
+            }
+        }
+        return tail;
+    }
+
+    private static int degree(GraphView g, GraphView t, int v) {
+        return g.outDegree(v) + t.outDegree(v);
+    }
+}
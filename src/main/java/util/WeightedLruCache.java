@@ -0,0 +1,67 @@
+package util;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+/**
+ * Thread-safe LRU cache bounded by total weight (e.g. bytes) instead of entry count.
+ *
+ * Lookups and inserts take one short lock (an access-ordered LinkedHashMap); values are
+ * computed outside it, so concurrent misses on the same key may compute twice and the
+ * later insert wins. A value heavier than the whole budget is returned but not cached.
+ */
+public final class WeightedLruCache<K, V> {
+    private final LinkedHashMap<K, V> map = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<K, Long> weights = new HashMap<>();
+    private final ToLongFunction<? super V> weigher;
+    private final long maxWeight;
+    private long weight, hits, misses, evictions;
+
+    public WeightedLruCache(long maxWeight, ToLongFunction<? super V> weigher) {
+        if (maxWeight < 0) throw new IllegalArgumentException("maxWeight must be non-negative: " + maxWeight);
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    /** Cached value for key (marking it most recently used), or null. */
+    public synchronized V get(K key) {
+        V v = map.get(key);
+        if (v != null) hits++;
+        else misses++;
+        return v;
+    }
+    /** Inserts or replaces key, then evicts least recently used entries down to the budget. */
+    public synchronized void put(K key, V value) {
+        long w = weigher.applyAsLong(value);
+        if (w > maxWeight) return;
+        Long old = weights.put(key, w);
+        if (old != null) weight -= old;
+        map.put(key, value);
+        weight += w;
+        Iterator<Map.Entry<K, V>> it = map.entrySet().iterator();
+        while (weight > maxWeight && it.hasNext()) {
+            K eldest = it.next().getKey();
+            if (eldest.equals(key)) continue;
+            it.remove();
+            weight -= weights.remove(eldest);
+            evictions++;
+        }
+    }
+    /** get(), or compute with loader (outside the lock) and put. */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> loader) {
+        V v = get(key);
+        if (v != null) return v;
+        v = loader.apply(key);
+        put(key, v);
+        return v;
+    }
+
+    public synchronized int size() { return map.size(); }
+    public synchronized long weight() { return weight; }
+    public long maxWeight() { return maxWeight; }
+    public synchronized long hits() { return hits; }
+    public synchronized long misses() { return misses; }
+    public synchronized long evictions() { return evictions; }
+}
@@ -0,0 +1,131 @@
+import graph.scc.TarjanSCC;
+import util.BinaryGraphFormat;
+import util.CsrGraph;
+import util.Graph;
+import util.GraphLoader;
+import util.GraphView;
+import util.Metrics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+/** JUnit tests for the memory-mapped binary graph format. */
+public class Binary_Tests {
+    private static GraphLoader.Dataset sample() {
+        Graph g = new Graph(5, true);
+        g.addEdge(0, 1, 3);
+        g.addEdge(1, 2, 2.5);
+        g.addEdge(2, 0, 4);
+        g.addEdge(2, 3, 1);
+        g.addEdge(3, 4, 7);
+        return new GraphLoader.Dataset(g.toCsr(), 3, "edge", true);
+    }
+    @Test
+    void roundTripThroughLoader(@TempDir Path dir) throws IOException {
+        GraphLoader.Dataset ds = sample();
+        Path f = dir.resolve("g.scg");
+        BinaryGraphFormat.write(ds, f);
+        GraphLoader.Dataset back = GraphLoader.loadDataset(f.toString());
+        assertEquals(3, back.source);
+        assertEquals("edge", back.weightModel);
+        assertTrue(back.directed);
+        assertSameGraph(ds.graph, back.graph);
+        assertFalse(BinaryGraphFormat.open(f).hasCondensation());
+    }
+    @Test
+    void cachedCondensation(@TempDir Path dir) throws IOException {
+        GraphLoader.Dataset ds = sample();
+        TarjanSCC scc = new TarjanSCC();
+        TarjanSCC.Result r = scc.findSCCs(ds.graph, new Metrics());
+        CsrGraph dag = scc.buildCondensation(ds.graph, r);
+        Path f = dir.resolve("g.scg");
+        BinaryGraphFormat.write(ds, r.compOf, r.compCount, dag, f);
+
+        BinaryGraphFormat.Mapped mapped = BinaryGraphFormat.open(f);
+        assertTrue(mapped.hasCondensation());
+        assertArrayEquals(r.compOf, mapped.copyCompOf());
+        assertSameGraph(dag, mapped.condensation);
+
+        TarjanSCC.Result cached = TarjanSCC.Result.fromCompOf(mapped.copyCompOf(), mapped.condensation.vertexCount());
+        assertEquals(r.compCount, cached.compCount);
+        for (int c = 0; c < r.compCount; c++) {
+            int[] expected = r.component(c);
+            Arrays.sort(expected);
+            assertArrayEquals(expected, cached.component(c));
+        }
+    }
+    @Test
+    void sourceStampDetectsReplacedJson(@TempDir Path dir) throws IOException {
+        Path json = dir.resolve("g.json"), f = dir.resolve("g.scg");
+        Files.writeString(json, "{\"n\":1,\"edges\":[]}");
+        BinaryGraphFormat.write(sample(), null, 0, null, json, f);
+        assertTrue(BinaryGraphFormat.open(f).isConvertedFrom(json));
+        // replaced with an older mtime (cp -p, rsync, archive extraction)
+        FileTime old = Files.getLastModifiedTime(json);
+        Files.writeString(json, "{\"n\":2,\"edges\":[]}");
+        Files.setLastModifiedTime(json, FileTime.fromMillis(old.toMillis() - 60_000));
+        assertFalse(BinaryGraphFormat.open(f).isConvertedFrom(json));
+        BinaryGraphFormat.write(sample(), f);
+        assertFalse(BinaryGraphFormat.open(f).isConvertedFrom(json));
+    }
+    @Test
+    void corruptHeaderIsIOException(@TempDir Path dir) throws IOException {
+        GraphLoader.Dataset ds = sample();
+        TarjanSCC scc = new TarjanSCC();
+        TarjanSCC.Result r = scc.findSCCs(ds.graph, new Metrics());
+        Path f = dir.resolve("g.scg");
+        BinaryGraphFormat.write(ds, r.compOf, r.compCount, scc.buildCondensation(ds.graph, r), f);
+        byte[] good = Files.readAllBytes(f);
+        // n, m, source, compCount, dagM, wmLen
+        for (int offset : new int[] {12, 16, 20, 24, 28, 32}) {
+            byte[] bad = good.clone();
+            ByteBuffer.wrap(bad).order(ByteOrder.LITTLE_ENDIAN).putInt(offset, -5);
+            Files.write(f, bad);
+            IOException e = assertThrows(IOException.class, () -> BinaryGraphFormat.open(f), "offset " + offset);
+            assertTrue(e.getMessage().startsWith(f.toString()), e.getMessage());
+        }
+    }
+    @Test
+    void corruptBodyIsIOException(@TempDir Path dir) throws IOException {
+        GraphLoader.Dataset ds = sample();
+        TarjanSCC scc = new TarjanSCC();
+        TarjanSCC.Result r = scc.findSCCs(ds.graph, new Metrics());
+        Path f = dir.resolve("g.scg");
+        BinaryGraphFormat.write(ds, r.compOf, r.compCount, scc.buildCondensation(ds.graph, r), f);
+        byte[] good = Files.readAllBytes(f);
+        // sections start at 8-byte boundaries after the 56-byte header and "edge"
+        int offsets = 64, targets = offsets + 24, weights = targets + 24, compOf = weights + 40;
+        int[][] edits = {{offsets + 8, 9}, {offsets + 20, 4}, {compOf + 8, r.compCount}, {compOf, -1}};
+        for (int[] edit : edits) {
+            byte[] bad = good.clone();
+            ByteBuffer.wrap(bad).order(ByteOrder.LITTLE_ENDIAN).putInt(edit[0], edit[1]);
+            Files.write(f, bad);
+            IOException e = assertThrows(IOException.class, () -> BinaryGraphFormat.open(f), "byte " + edit[0]);
+            assertTrue(e.getMessage().startsWith(f.toString()), e.getMessage());
+        }
+        Files.write(f, good);
+        assertArrayEquals(r.compOf, BinaryGraphFormat.open(f).copyCompOf());
+    }
+    private static void assertSameGraph(GraphView a, GraphView b) {
+        assertEquals(a.vertexCount(), b.vertexCount());
+        assertEquals(a.edgeCount(), b.edgeCount());
+        for (int u = 0; u <= a.vertexCount(); u++) assertEquals(a.offset(u), b.offset(u));
+        for (int e = 0; e < a.edgeCount(); e++) {
+            assertEquals(a.target(e), b.target(e));
+            assertEquals(a.weight(e), b.weight(e), 0.0);
+        }
+    }
+}
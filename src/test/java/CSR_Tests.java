@@ -0,0 +1,111 @@
+import graph.dagsp.DAGShortestPath;
+import util.CsrGraph;
+import util.Graph;
+import util.GraphGenerator;
+import util.GraphView;
+import util.Metrics;
+import util.Relabeling;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+/** JUnit tests for the CSR graph representation. */
+public class CSR_Tests {
+    @Test
+    void fromEdgesGroupsByTailAndKeepsOrder() {
+        int[] from = {2, 0, 2, 0};
+        int[] to   = {1, 2, 0, 1};
+        double[] w = {5, 1, 6, 2};
+        CsrGraph g = CsrGraph.fromEdges(3, true, 4, from, to, w);
+        assertEquals(4, g.edgeCount());
+        assertEquals(2, g.outDegree(0));
+        assertEquals(0, g.outDegree(1));
+        assertEquals(2, g.target(g.offset(0)));      // 0->2 added before 0->1
+        assertEquals(1, g.target(g.offset(0) + 1));
+        assertEquals(6.0, g.weight(g.offset(2) + 1), 1e-9);
+    }
+    @Test
+    void graphViewTracksAddEdge() {
+        Graph g = new Graph(3, true);
+        g.addEdge(0, 1, 1);
+        assertEquals(1, g.outDegree(0));
+        g.addEdge(0, 2, 4);                          // invalidates the cached snapshot
+        assertEquals(2, g.outDegree(0));
+        assertEquals(4.0, g.weight(g.offset(0) + 1), 1e-9);
+        assertEquals(2, g.offset(3));
+    }
+    @Test
+    void degreesAndTransposeAreCachedAndInvalidated() {
+        Graph g = new Graph(3, true);
+        g.addEdge(0, 2, 1);
+        g.addEdge(1, 2, 7);
+        assertEquals(2, g.indegree(2));
+        GraphView t = g.transpose();
+        assertEquals(2, t.outDegree(2));
+        assertEquals(7.0, t.weight(t.offset(2) + 1), 1e-9);   // predecessors keep tail order
+        assertEquals(g.toCsr(), g.toCsr().transpose().transpose());
+
+        g.addEdge(2, 0, 1);
+        assertEquals(1, g.indegree(0));
+        assertEquals(1, g.transpose().outDegree(0));
+    }
+    @Test
+    void relabelingPreservesEdgesAndDistances() {
+        // deep chain with short skips under shuffled ids: locality only a relabeling can restore
+        CsrGraph dag = new GraphGenerator(GraphGenerator.Shape.DEEP_CHAIN, 3000, 12000, 4).shuffle(true).toCsr();
+        int n = dag.n;
+        int[] topo = Relabeling.compute(dag, Relabeling.Order.TOPOLOGICAL).toOld;
+        int src = topo[0];
+        DAGShortestPath dsp = new DAGShortestPath();
+        DAGShortestPath.DistResult base = dsp.shortestPaths(dag, src, topo, new Metrics());
+        long shuffledSpan = span(dag);
+        for (Relabeling.Order o : Relabeling.Order.values()) {
+            Relabeling r = Relabeling.compute(dag, o);
+            for (int v = 0; v < n; v++) assertEquals(v, r.toOld[r.toNew[v]]);
+            CsrGraph g = r.apply(dag, true);
+            assertEquals(dag.edgeCount(), g.edgeCount());
+            for (int u = 0; u < n; u++) {
+                int old = r.toOld[u];
+                assertEquals(dag.outDegree(old), g.outDegree(u));
+                double sumOld = 0, sumNew = 0;
+                for (int e = dag.offset(old); e < dag.offset(old + 1); e++) sumOld += dag.target(e) * 31.0 + dag.weight(e);
+                for (int e = g.offset(u); e < g.offset(u + 1); e++) {
+                    sumNew += r.toOld[g.target(e)] * 31.0 + g.weight(e);
+                    if (e > g.offset(u)) assertTrue(g.target(e - 1) <= g.target(e));
+                }
+                assertEquals(sumOld, sumNew, 1e-6);
+            }
+            DAGShortestPath.DistResult sp = dsp.shortestPaths(g, r.toNew[src], r.mapIds(topo), new Metrics());
+            assertArrayEquals(base.dist, r.byOld(sp.dist), 1e-9, o.id);
+            int[] parent = r.idsByOld(sp.parent);
+            for (int v = 0; v < n; v++) {
+                if (parent[v] >= 0) assertEquals(base.dist[v], base.dist[parent[v]] + edgeWeight(dag, parent[v], v), 1e-9);
+            }
+            assertTrue(span(g) < shuffledSpan / 10, o.id + " span " + span(g) + " vs " + shuffledSpan);
+            if (o == Relabeling.Order.TOPOLOGICAL) {     // every edge goes to a higher id
+                for (int u = 0; u < n; u++) for (int e = g.offset(u); e < g.offset(u + 1); e++) assertTrue(u < g.target(e));
+            }
+        }
+        Graph cyc = new Graph(2, true);
+        cyc.addEdge(0, 1, 1);
+        cyc.addEdge(1, 0, 1);
+        assertThrows(IllegalArgumentException.class, () -> Relabeling.compute(cyc, Relabeling.Order.TOPOLOGICAL));
+        assertThrows(IllegalArgumentException.class, () -> Relabeling.fromOrder(new int[]{0, 0}));
+    }
+    // total |u - v| over all edges: how far apart in memory an edge's endpoints are
+    private static long span(GraphView g) {
+        long s = 0;
+        for (int u = 0; u < g.vertexCount(); u++) {
+            for (int e = g.offset(u); e < g.offset(u + 1); e++) s += Math.abs(u - g.target(e));
+        }
+        return s;
+    }
+    private static double edgeWeight(GraphView g, int u, int v) {
+        double w = Double.POSITIVE_INFINITY;
+        for (int e = g.offset(u); e < g.offset(u + 1); e++) if (g.target(e) == v) w = Math.min(w, g.weight(e));
+        return w;
+    }
+}
@@ -0,0 +1,67 @@
+import util.ChannelWriter;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+/** JUnit tests for the buffered channel writer and its fixed-precision formatter. */
+public class ChannelWriter_Tests {
+    @Test
+    void fixedMatchesStringFormat() throws IOException {
+        double[] edge = {0, -0.0, -0.0001, 0.0005, 1.0005, 2.0005, 0.0015, 1.2345, 0.9995, 0.9996,
+                123456.0005, 999999999.9995, 1e9, -1e12 - 0.5, 1e15 + 0.5, 24, 0.1 + 0.2, Long.MAX_VALUE};
+        SplittableRandom rnd = new SplittableRandom(7);
+        int k = 0;
+        double[] xs = new double[edge.length + 30000];
+        for (double x : edge) xs[k++] = x;
+        while (k < xs.length) {
+            int kind = k % 3;
+            double x = kind == 0 ? rnd.nextDouble() * 1000
+                    : kind == 1 ? rnd.nextInt(2_000_000) / 2000.0 + 0.0005   // ties at the 4th decimal
+                    : (rnd.nextDouble() - 0.5) * Math.pow(10, rnd.nextInt(14));
+            xs[k++] = x;
+        }
+        for (int d = 0; d <= 4; d++) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            StringBuilder expected = new StringBuilder();
+            try (ChannelWriter w = new ChannelWriter(Channels.newChannel(bytes), 64)) {
+                for (double x : xs) {
+                    w.fixed(x, d).ch(' ');
+                    expected.append(String.format(Locale.US, "%." + d + "f", x)).append(' ');
+                }
+            }
+            assertEquals(expected.toString(), bytes.toString(StandardCharsets.UTF_8), "decimals=" + d);
+        }
+    }
+    @Test
+    void textNumbersAndBinary() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ChannelWriter w = new ChannelWriter(Channels.newChannel(bytes), 16)) {
+            w.text("größe,").num(0).ch(',').num(-42).ch(',').num(Long.MIN_VALUE).ch(',').num(Long.MAX_VALUE);
+        }
+        assertEquals("größe,0,-42," + Long.MIN_VALUE + "," + Long.MAX_VALUE, bytes.toString(StandardCharsets.UTF_8));
+
+        bytes.reset();
+        try (ChannelWriter w = new ChannelWriter(Channels.newChannel(bytes), 8)) {
+            w.i32(7).i64(-1L).f64(Double.POSITIVE_INFINITY).u8(3).str("ab").str(null);
+        }
+        ByteBuffer b = ByteBuffer.wrap(bytes.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(7, b.getInt());
+        assertEquals(-1L, b.getLong());
+        assertEquals(Double.POSITIVE_INFINITY, b.getDouble());
+        assertEquals(3, b.get());
+        assertEquals(2, b.getInt());
+        assertEquals('a', b.get());
+        assertEquals('b', b.get());
+        assertEquals(-1, b.getInt());
+        assertEquals(0, b.remaining());
+    }
+}
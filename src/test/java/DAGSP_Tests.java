@@ -1,11 +1,28 @@
+import graph.dagsp.BatchShortestPaths;
+import graph.dagsp.CriticalPathMethod;
 import graph.dagsp.DAGShortestPath;
+import graph.dagsp.HierarchicalShortestPaths;
+import graph.dagsp.IncrementalDagPaths;
+import graph.dagsp.ListScheduler;
+import graph.scc.TarjanSCC;
 import graph.topo.KahnTopoSort;
+import util.CsrGraph;
 import util.Graph;
+import util.GraphGenerator;
+import util.IndexedMinHeap;
 import util.Metrics;
 
 import org.junit.jupiter.api.Test;
 
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 /** JUnit tests for DAG shortest-path routines. */
 public class DAGSP_Tests {
@@ -34,5 +51,256 @@ public class DAGSP_Tests {
                 sp.shortestPaths(dag, 0, topoRes.order, new Metrics());
         assertTrue(Double.isInfinite(res.dist[2]) || res.parent[2] == -1);
     }
-}
+    @Test
+    void batchMatchesSingleSource() {
+        SplittableRandom rnd = new SplittableRandom(3);
+        int n = 2000, m = 10_000;
+        int[] from = new int[m], to = new int[m];
+        double[] w = new double[m];
+        for (int i = 0; i < m; i++) {
+            int u = rnd.nextInt(n - 1);
+            from[i] = u;
+            to[i] = u + 1 + rnd.nextInt(Math.min(50, n - u - 1));
+            w[i] = 1 + rnd.nextInt(20);
+        }
+        CsrGraph dag = CsrGraph.fromEdges(n, true, m, from, to, w);
+        KahnTopoSort.Result topo = new KahnTopoSort().topoOrder(dag, new Metrics());
+        int[] sources = new int[64];
+        for (int i = 0; i < sources.length; i++) sources[i] = rnd.nextInt(n);
+
+        Metrics mb = new Metrics();
+        double[][] batch = new BatchShortestPaths().distances(dag, sources, topo.order, mb);
+        float[][] batchF = new BatchShortestPaths().distancesFloat(dag, sources, topo.order, new Metrics());
+        DAGShortestPath sp = new DAGShortestPath();
+        Metrics ms = new Metrics();
+        for (int i = 0; i < sources.length; i++) {
+            double[] single = sp.shortestPaths(dag, sources[i], topo.order, ms).dist;
+            assertArrayEquals(single, batch[i], 0.0);
+            for (int v = 0; v < n; v++) assertEquals((float) single[v], batchF[i][v], 0.0f);
+        }
+        assertEquals(ms.get("dagsp_relaxations"), mb.get("dagsp_relaxations"));
+    }
+    @Test
+    void criticalPathMethod() {
+        // 0 -> 1 -> 3 (2 + 3) is critical; 0 -> 2 -> 3 (3 + 1) has slack 1 at vertex 2
+        Graph dag = new Graph(4, true);
+        dag.addEdge(0, 1, 2);
+        dag.addEdge(0, 2, 3);
+        dag.addEdge(1, 3, 3);
+        dag.addEdge(2, 3, 1);
+        KahnTopoSort.Result topo = new KahnTopoSort().topoOrder(dag, new Metrics());
+        CriticalPathMethod.Result r = new CriticalPathMethod().analyze(dag, topo.order, new Metrics());
+        assertEquals(5.0, r.length);
+        assertArrayEquals(new double[]{0, 2, 3, 5}, r.earliest);
+        assertArrayEquals(new double[]{0, 2, 4, 5}, r.latest);
+        assertEquals(1.0, r.slack(2));
+        assertFalse(r.isCritical(2));
+        assertArrayEquals(new int[]{0, 1, 3}, r.criticalTasks());
+
+        // Condensation of a generated graph: ES equals the longest-path DP, slack >= 0,
+        // and every vertex inherits its component's values.
+        CsrGraph g = new GraphGenerator(GraphGenerator.Shape.PLANTED_CYCLES, 3000, 12000, 5).shuffle(true).toCsr();
+        TarjanSCC scc = new TarjanSCC();
+        TarjanSCC.Result sccs = scc.findSCCs(g, new Metrics());
+        CsrGraph c = scc.buildCondensation(g, sccs);
+        KahnTopoSort.Result ct = new KahnTopoSort().topoOrder(c, new Metrics());
+        Metrics m = new Metrics();
+        CriticalPathMethod.Result cr = new CriticalPathMethod().analyze(c, ct.order, m);
+        assertArrayEquals(new DAGShortestPath().longestPathGlobal(c, ct.order, new Metrics()).dist, cr.earliest, 0.0);
+        assertEquals(2L * c.edgeCount(), m.get("cpm_relaxations"));
+        assertTrue(cr.criticalCount() > 0);
+        for (int x = 0; x < c.n; x++) assertTrue(cr.slack(x) >= 0);
+        CriticalPathMethod.Result vr = cr.mapToVertices(sccs.compOf);
+        for (int v = 0; v < g.vertexCount(); v++) {
+            int comp = sccs.compOf[v];
+            assertEquals(cr.latest[comp], vr.latest[v]);
+            assertEquals(cr.isCritical(comp), vr.isCritical(v));
+        }
+    }
+    @Test
+    void workspaceMatchesAllocatingApiWithoutAllocating() {
+        CsrGraph dag = new GraphGenerator(GraphGenerator.Shape.DEEP_CHAIN, 3000, 12000, 17).shuffle(true).toCsr();
+        KahnTopoSort.Result topo = new KahnTopoSort().topoOrder(dag, new Metrics());
+        int[] order = new int[topo.order.size()];
+        for (int i = 0; i < order.length; i++) order[i] = topo.order.get(i);
+        DAGShortestPath sp = new DAGShortestPath();
+        DAGShortestPath.Workspace ws = new DAGShortestPath.Workspace(order);
+        int[] buf = new int[dag.n];
+        SplittableRandom rnd = new SplittableRandom(4);
+        for (int q = 0; q < 50; q++) {
+            int s = rnd.nextInt(dag.n), t = rnd.nextInt(dag.n);
+            DAGShortestPath.DistResult ref = sp.shortestPaths(dag, s, topo.order, new Metrics());
+            assertEquals(ref.dist[t], sp.distance(dag, s, t, ws, new Metrics()));
+            List<Integer> path = DAGShortestPath.reconstructPath(s, t, ref.parent);
+            int len = ws.path(t, buf);
+            assertEquals(path.size(), len);
+            for (int i = 0; i < len; i++) assertEquals(path.get(i).intValue(), buf[i]);
+            assertEquals(len, DAGShortestPath.reconstructPath(s, t, ref.parent, buf));
+            sp.shortestPaths(dag, s, ws, new Metrics());
+            for (int v = 0; v < dag.n; v++) assertEquals(ref.dist[v], ws.dist(v));
+        }
+        // Warm query loop: no per-query allocation (a small allowance for the MXBean itself).
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Metrics m = new Metrics();
+        long sink = 0;
+        for (int q = 0; q < 20_000; q++) {
+            sp.distance(dag, q % dag.n, (q * 7) % dag.n, ws, m);
+            sink += ws.path((q * 7) % dag.n, buf);
+        }
+        long before = mx.getCurrentThreadAllocatedBytes();
+        for (int q = 0; q < 20_000; q++) {
+            sp.distance(dag, q % dag.n, (q * 7) % dag.n, ws, m);
+            sink += ws.path((q * 7) % dag.n, buf);
+        }
+        long allocated = mx.getCurrentThreadAllocatedBytes() - before;
+        assertTrue(allocated < 4096, "allocated " + allocated + " bytes (" + sink + ")");
+    }
+    @Test
+    void incrementalUpdatesMatchFullRecompute() {
+        // small integer weights: many equal-length paths, so parent tie-breaking is exercised
+        CsrGraph g = new GraphGenerator(GraphGenerator.Shape.PLANTED_CYCLES, 4000, 16000, 8)
+                .plantedCycles(0).maxWeight(3).shuffle(true).toCsr();
+        int[] topo = toArray(new KahnTopoSort().topoOrder(g, new Metrics()).order);
+        int src = topo[0];
+        IncrementalDagPaths inc = new IncrementalDagPaths(g, topo, src, new Metrics());
+        DAGShortestPath dsp = new DAGShortestPath();
+        SplittableRandom rnd = new SplittableRandom(3);
+        DAGShortestPath.DistResult prevSp = dsp.shortestPaths(g, src, topo, new Metrics());
+        DAGShortestPath.DistResult prevLp = dsp.longestPathGlobal(g, topo, new Metrics());
+        for (int round = 0; round < 40; round++) {
+            int k = round % 4 == 0 ? 200 : 1 + rnd.nextInt(5);
+            int[] edges = new int[k];
+            double[] w = new double[k];
+            for (int i = 0; i < k; i++) {
+                edges[i] = rnd.nextInt(g.edgeCount());
+                w[i] = 1 + rnd.nextInt(3);
+            }
+            Metrics m = new Metrics();
+            IncrementalDagPaths.Changes ch = inc.update(edges, w, m);
+            CsrGraph now = inc.snapshot();
+            DAGShortestPath.DistResult sp = dsp.shortestPaths(now, src, topo, new Metrics());
+            DAGShortestPath.DistResult lp = dsp.longestPathGlobal(now, topo, new Metrics());
+            assertArrayEquals(sp.dist, inc.shortestPaths().dist, 0.0);
+            assertArrayEquals(sp.parent, inc.shortestPaths().parent);
+            assertArrayEquals(lp.dist, inc.longestPaths().dist, 0.0);
+            assertArrayEquals(lp.parent, inc.longestPaths().parent);
+            assertEquals(DAGShortestPath.reconstructPathToMax(lp.dist, lp.parent), toList(inc.criticalPath()));
+            assertArrayEquals(diff(prevSp.dist, sp.dist, topo), ch.shortest);
+            assertArrayEquals(diff(prevLp.dist, lp.dist, topo), ch.longest);
+            assertTrue(m.get("dag_incr_visits") <= g.n * 2L);
+            prevSp = sp;
+            prevLp = lp;
+        }
+    }
+    @Test
+    void incrementalWithoutSourceRejectsShortestQueries() {
+        Graph g = new Graph(3, true);
+        g.addEdge(0, 1, 2);
+        g.addEdge(1, 2, 3);
+        IncrementalDagPaths inc = new IncrementalDagPaths(g.toCsr(), new int[] {0, 1, 2}, -1, new Metrics());
+        assertEquals(5.0, inc.criticalLength(), 0.0);
+        assertEquals("no source", assertThrows(IllegalStateException.class, () -> inc.shortestDist(2)).getMessage());
+        assertThrows(IllegalStateException.class, () -> inc.shortestParent(2));
+        assertThrows(IllegalStateException.class, inc::shortestPaths);
+    }
+    @Test
+    void hierarchicalShortestPathsMatchFlatDijkstra() {
+        // integer weights: every path length is exact, so distances must agree exactly
+        CsrGraph[] graphs = {
+                new GraphGenerator(GraphGenerator.Shape.SCC_CHAIN, 3000, 9000, 5).componentSize(6).shuffle(true).toCsr(),
+                new GraphGenerator(GraphGenerator.Shape.PLANTED_CYCLES, 3000, 9000, 6).plantedCycles(200).maxWeight(4).shuffle(true).toCsr(),
+                new GraphGenerator(GraphGenerator.Shape.RANDOM, 2000, 8000, 7).toCsr()
+        };
+        for (CsrGraph g : graphs) {
+            for (long limit : new long[]{1 << 16, 8}) {     // 8 cells: most components run Dijkstra per query
+                HierarchicalShortestPaths.Index ix = new HierarchicalShortestPaths().tableLimit(limit).build(g, new Metrics());
+                for (int s = 0; s < g.n; s += g.n / 7) {
+                    double[] flat = HierarchicalShortestPaths.dijkstra(g, s, new Metrics());
+                    assertArrayEquals(flat, ix.shortestPaths(s, new Metrics()), 0.0);
+                    int t = (s * 31 + 17) % g.n;
+                    assertEquals(flat[t], ix.distance(s, t, new Metrics()), 0.0);
+                }
+            }
+        }
+    }
+    @Test
+    void listSchedulerRespectsDependenciesAndWorkers() {
+        // 0 -> 2, 1 -> 2, 0 -> 3 (lag 2); b-levels: 0: 5, 1: 4, 2: 1, 3: 0
+        Graph dag = new Graph(4, true);
+        dag.addEdge(0, 2, 0);
+        dag.addEdge(1, 2, 0);
+        dag.addEdge(0, 3, 2);
+        double[] dur = {3, 3, 1, 0};
+        ListScheduler.Schedule s = new ListScheduler().workers(1).schedule(dag, new int[]{0, 1, 2, 3}, dur, new Metrics());
+        assertArrayEquals(new double[]{5, 4, 1, 0}, s.priority, 0.0);
+        assertArrayEquals(new double[]{0, 3, 6, 7}, s.start, 0.0);     // 3 is eligible at 5 but ranks below 2
+        assertEquals(7.0, s.makespan, 0.0);
 
+        CsrGraph g = new GraphGenerator(GraphGenerator.Shape.PLANTED_CYCLES, 3000, 12000, 2)
+                .plantedCycles(0).maxWeight(3).shuffle(true).toCsr();
+        int[] topo = toArray(new KahnTopoSort().topoOrder(g, new Metrics()).order);
+        SplittableRandom rnd = new SplittableRandom(5);
+        double[] d = new double[g.n];
+        for (int v = 0; v < g.n; v++) d[v] = 1 + rnd.nextInt(5);
+        for (int k : new int[]{1, 4, 64}) {
+            s = new ListScheduler().workers(k).schedule(g, topo, d, new Metrics());
+            double max = 0;
+            for (int u = 0; u < g.n; u++) {
+                assertEquals(d[u], s.finish[u] - s.start[u], 0.0);
+                max = Math.max(max, s.finish[u]);
+                for (int e = g.offset(u); e < g.offset(u + 1); e++) {
+                    assertTrue(s.start[g.target(e)] >= s.finish[u] + g.weight(e));
+                }
+            }
+            assertEquals(max, s.makespan, 0.0);
+            // no worker runs two tasks at once
+            double[] start = s.start;
+            int[] byStart = java.util.stream.IntStream.range(0, g.n).boxed()
+                    .sorted((a, b) -> Double.compare(start[a], start[b])).mapToInt(Integer::intValue).toArray();
+            double[] freeAt = new double[k];
+            for (int v : byStart) {
+                assertTrue(s.start[v] >= freeAt[s.worker[v]]);
+                freeAt[s.worker[v]] = s.finish[v];
+            }
+        }
+        // enough workers: every task starts as early as its dependencies allow (CPM with w + duration)
+        double[] w = new double[g.edgeCount()];
+        int[] off = new int[g.n + 1], tgt = new int[g.edgeCount()];
+        for (int u = 0; u <= g.n; u++) off[u] = g.offset(u);
+        for (int u = 0; u < g.n; u++) {
+            for (int e = g.offset(u); e < g.offset(u + 1); e++) {
+                tgt[e] = g.target(e);
+                w[e] = g.weight(e) + d[u];
+            }
+        }
+        CriticalPathMethod.Result cpm = new CriticalPathMethod().analyze(new CsrGraph(g.n, true, off, tgt, w), topo, new Metrics());
+        s = new ListScheduler().workers(g.n).schedule(g, topo, d, new Metrics());
+        assertArrayEquals(cpm.earliest, s.start, 0.0);
+    }
+    @Test
+    void indexedHeapOrdersByKeyThenItem() {
+        IndexedMinHeap h = new IndexedMinHeap(8);
+        h.add(5, 2.0);
+        h.add(3, 2.0);
+        h.add(7, 1.0);
+        h.add(1, 9.0);
+        h.changeKey(1, 0.5);
+        assertTrue(h.remove(7));
+        h.addOrUpdate(6, 2.0);
+        List<Integer> order = new ArrayList<>();
+        while (!h.isEmpty()) order.add(h.poll());
+        assertEquals(List.of(1, 3, 5, 6), order);
+        assertFalse(h.contains(5));
+    }
+    private static int[] diff(double[] a, double[] b, int[] topo) {
+        return java.util.Arrays.stream(topo).filter(v -> Double.compare(a[v], b[v]) != 0).toArray();
+    }
+    private static int[] toArray(List<Integer> xs) {
+        return xs.stream().mapToInt(Integer::intValue).toArray();
+    }
+    private static List<Integer> toList(int[] xs) {
+        List<Integer> out = new ArrayList<>();
+        for (int x : xs) out.add(x);
+        return out;
+    }
+}
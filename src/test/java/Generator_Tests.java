@@ -0,0 +1,82 @@
+import graph.scc.TarjanSCC;
+import graph.topo.LevelTopoSort;
+import util.CsrGraph;
+import util.GraphGenerator;
+import util.GraphGenerator.Shape;
+import util.GraphLoader;
+import util.GraphView;
+import util.Metrics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+/** JUnit tests for the synthetic graph generator. */
+public class Generator_Tests {
+    @Test
+    void deterministicWithExactEdgeCount() {
+        for (Shape s : Shape.values()) {
+            CsrGraph a = new GraphGenerator(s, 2000, 8000, 1).shuffle(true).toCsr();
+            CsrGraph b = new GraphGenerator(s, 2000, 8000, 1).shuffle(true).toCsr();
+            assertEquals(8000, a.edgeCount(), s.id);
+            assertSameGraph(a, b);
+            CsrGraph c = new GraphGenerator(s, 2000, 8000, 2).shuffle(true).toCsr();
+            assertNotEquals(edgeHash(a), edgeHash(c), s.id);
+        }
+    }
+    @Test
+    void sccStructureMatchesShape() {
+        TarjanSCC scc = new TarjanSCC();
+        // 100 cycles of 10, linked into a chain: the condensation has 100 levels
+        CsrGraph g = new GraphGenerator(Shape.SCC_CHAIN, 1000, 3000, 3).componentSize(10).toCsr();
+        TarjanSCC.Result r = scc.findSCCs(g, new Metrics());
+        assertEquals(100, r.compCount);
+        for (int c = 0; c < r.compCount; c++) assertEquals(10, r.componentSize(c));
+        assertEquals(100, new LevelTopoSort().levels(scc.buildCondensation(g, r), new Metrics()).levelCount);
+
+        CsrGraph dag = new GraphGenerator(Shape.PLANTED_CYCLES, 5000, 20000, 3).plantedCycles(0).shuffle(true).toCsr();
+        assertEquals(5000, scc.findSCCs(dag, new Metrics()).compCount);
+        CsrGraph planted = new GraphGenerator(Shape.PLANTED_CYCLES, 5000, 20000, 3).plantedCycles(50).toCsr();
+        int nonTrivial = 0;
+        TarjanSCC.Result p = scc.findSCCs(planted, new Metrics());
+        for (int c = 0; c < p.compCount; c++) if (p.componentSize(c) > 1) nonTrivial++;
+        assertTrue(nonTrivial > 0 && nonTrivial <= 50);
+
+        CsrGraph deep = new GraphGenerator(Shape.DEEP_CHAIN, 5000, 20000, 3).toCsr();
+        assertEquals(5000, scc.findSCCs(deep, new Metrics()).compCount);
+        assertEquals(5000, new LevelTopoSort().levels(deep, new Metrics()).levelCount);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new GraphGenerator(Shape.DEEP_CHAIN, 100, 50, 3).toCsr());
+    }
+    @Test
+    void jsonRoundTrip(@TempDir Path dir) throws IOException {
+        GraphGenerator gen = new GraphGenerator(Shape.POWER_LAW, 3000, 12000, 9).shuffle(true);
+        Path f = dir.resolve("g.json.gz");
+        gen.writeJson(f);
+        GraphLoader.Dataset ds = GraphLoader.loadDataset(f.toString());
+        assertSameGraph(gen.toCsr(), ds.graph);
+        assertEquals(gen.source(), ds.source.intValue());
+        assertEquals("edge", ds.weightModel);
+    }
+    private static void assertSameGraph(GraphView a, GraphView b) {
+        assertEquals(a.vertexCount(), b.vertexCount());
+        assertEquals(a.edgeCount(), b.edgeCount());
+        for (int v = 0; v <= a.vertexCount(); v++) assertEquals(a.offset(v), b.offset(v));
+        for (int e = 0; e < a.edgeCount(); e++) {
+            assertEquals(a.target(e), b.target(e));
+            assertEquals(a.weight(e), b.weight(e));
+        }
+    }
+    private static long edgeHash(GraphView g) {
+        long h = 0;
+        for (int e = 0; e < g.edgeCount(); e++) h = h * 31 + g.target(e);
+        return h;
+    }
+}
@@ -0,0 +1,110 @@
+import graph.scc.IncrementalSCC;
+import graph.scc.TarjanSCC;
+import util.CsrGraph;
+import util.EdgeBuffer;
+import util.Graph;
+import util.Metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+/** JUnit tests for incremental SCC / topological order maintenance. */
+public class IncrementalSCC_Tests {
+    @Test
+    void forwardInsertIsLocalAndBackEdgeMerges() {
+        // chain 0 -> 1 -> 2 -> 3
+        Graph g = new Graph(4, true);
+        g.addEdge(0, 1, 1);
+        g.addEdge(1, 2, 1);
+        g.addEdge(2, 3, 1);
+        IncrementalSCC inc = new IncrementalSCC(g);
+        assertFalse(inc.insertEdge(0, 3, 1));          // already consistent with the order
+        assertEquals(0, inc.lastAffected());
+        assertTrue(inc.insertEdge(3, 1, 1));           // closes 1 -> 2 -> 3 -> 1
+        assertEquals(2, inc.componentCount());
+        assertTrue(inc.sameComponent(1, 3));
+        assertFalse(inc.sameComponent(0, 1));
+        assertTrue(inc.position(inc.compOf(0)) < inc.position(inc.compOf(2)));
+    }
+    @Test
+    void repeatedAndInternalEdgesAreNotKept() {
+        // 0 -> 1 -> 2; the repeated 2 -> 0 back edge is a no-op once {0, 1, 2} is merged
+        Graph g = new Graph(4, true);
+        g.addEdge(0, 1, 1);
+        g.addEdge(1, 2, 1);
+        g.addEdge(2, 3, 4);
+        IncrementalSCC inc = new IncrementalSCC(g);
+        assertTrue(inc.insertEdge(2, 0, 1));
+        for (int i = 0; i < 100; i++) {
+            assertFalse(inc.insertEdge(2, 0, 1));
+            assertFalse(inc.insertEdge(1, 3, 9));           // parallel to 2 -> 3
+            assertEquals(0, inc.lastAffected());
+        }
+        CsrGraph dag = inc.condensation();
+        assertEquals(2, dag.n);
+        assertEquals(1, dag.edgeCount());
+        assertEquals(4.0, dag.weight(0), 0.0);              // first weight kept
+    }
+    @Test
+    void matchesRecomputeUnderRandomInserts() {
+        SplittableRandom rnd = new SplittableRandom(5);
+        int n = 300;
+        EdgeBuffer all = new EdgeBuffer();
+        for (int i = 0; i < 200; i++) {
+            int u = rnd.nextInt(n - 1);
+            all.add(u, u + 1 + rnd.nextInt(n - u - 1), 1);
+        }
+        IncrementalSCC inc = new IncrementalSCC(all.toCsr(n, true));
+        for (int step = 0; step < 400; step++) {
+            int u = rnd.nextInt(n), v = rnd.nextInt(n);
+            all.add(u, v, 1);
+            inc.insertEdge(u, v, 1);
+            if (step % 20 != 0) continue;
+
+            CsrGraph g = all.toCsr(n, true);
+            TarjanSCC.Result full = new TarjanSCC().findSCCs(g, new Metrics());
+            assertEquals(full.compCount, inc.componentCount());
+            for (int x = 0; x < n; x++) {
+                for (int y = x + 1; y < n; y += 7) {
+                    assertEquals(full.compOf[x] == full.compOf[y], inc.sameComponent(x, y));
+                }
+            }
+            // every edge between different components respects the maintained order
+            for (int x = 0; x < n; x++) {
+                for (int e = g.offset(x); e < g.offset(x + 1); e++) {
+                    int a = inc.compOf(x), b = inc.compOf(g.target(e));
+                    assertTrue(a == b || inc.position(a) < inc.position(b));
+                }
+            }
+            // result(): same partition as Tarjan, dense ids in topological order
+            TarjanSCC.Result snap = inc.result();
+            assertEquals(full.compCount, snap.compCount);
+            int[] map = new int[full.compCount];
+            Arrays.fill(map, -1);
+            for (int x = 0; x < n; x++) {
+                int c = snap.compOf[x];
+                if (map[c] == -1) map[c] = full.compOf[x];
+                assertEquals(map[c], full.compOf[x]);
+                assertEquals(full.componentSize(full.compOf[x]), snap.componentSize(c));
+                assertEquals(inc.componentSize(inc.compOf(x)), snap.componentSize(c));
+            }
+            for (int c = 0; c < snap.compCount; c++) {
+                for (int z : snap.component(c)) assertEquals(c, snap.compOf[z]);
+            }
+            for (int x = 0; x < n; x++) {
+                for (int e = g.offset(x); e < g.offset(x + 1); e++) {
+                    assertTrue(snap.compOf[x] <= snap.compOf[g.target(e)]);
+                }
+            }
+            CsrGraph dag = inc.condensation();
+            for (int a = 0; a < dag.n; a++) {
+                for (int e = dag.offset(a); e < dag.offset(a + 1); e++) assertTrue(a < dag.target(e));
+            }
+        }
+    }
+}
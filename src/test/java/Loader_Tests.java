@@ -0,0 +1,118 @@
+import util.CsrGraph;
+import util.EdgeListLoader;
+import util.GraphGenerator;
+import util.GraphLoader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+/** JUnit tests for the streaming dataset loader. */
+public class Loader_Tests {
+    private static final String EDGES_FIRST =
+            "{\"edges\":[{\"w\":2,\"u\":0,\"v\":1},{\"u\":1,\"v\":2,\"w\":3.5,\"note\":[1]}],"
+            + "\"weight_model\":\"edge\",\"n\":3,\"directed\":true}";
+
+    @Test
+    void keysInAnyOrder(@TempDir Path dir) throws IOException {
+        Path f = dir.resolve("g.json");
+        Files.writeString(f, EDGES_FIRST);
+        GraphLoader.Dataset ds = GraphLoader.loadDataset(f.toString());
+        assertEquals(3, ds.graph.vertexCount());
+        assertEquals(2, ds.graph.edgeCount());
+        assertEquals(3.5, ds.graph.weight(ds.graph.offset(1)), 1e-9);
+        assertNull(ds.source);
+    }
+    @Test
+    void streamIsLeftOpen() throws IOException {
+        boolean[] closed = {false};
+        InputStream in = new ByteArrayInputStream(EDGES_FIRST.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+        assertEquals(2, GraphLoader.loadDataset(in, "mem").graph.edgeCount());
+        assertFalse(closed[0]);
+    }
+    @Test
+    void nonObjectEdgeIsRejected() {
+        String doc = "{\"n\":3,\"edges\":[{\"u\":0,\"v\":1,\"w\":1}, 5, {\"u\":1,\"v\":2,\"w\":1}],\"source\":0}";
+        IOException e = assertThrows(IOException.class, () -> GraphLoader.loadDataset(
+                new ByteArrayInputStream(doc.getBytes(StandardCharsets.UTF_8)), "mem"));
+        assertEquals("mem: edge #1 is not an object", e.getMessage());
+    }
+    @Test
+    void gzipIsDetected(@TempDir Path dir) throws IOException {
+        Path f = dir.resolve("g.json.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(f))) {
+            out.write(EDGES_FIRST.getBytes(StandardCharsets.UTF_8));
+        }
+        GraphLoader.Dataset ds = GraphLoader.loadDataset(f.toString());
+        assertEquals(2, ds.graph.edgeCount());
+        assertEquals(2, ds.graph.target(ds.graph.offset(1)));
+    }
+    @Test
+    void edgeListFormatting(@TempDir Path dir) throws IOException {
+        Path f = dir.resolve("g.tsv");
+        Files.writeString(f, "# comment\n0\t1\t2\r\n\n  1 2 3.5e0 \n% other comment\n2 0\n1 3 -0.25");
+        GraphLoader.Dataset ds = GraphLoader.loadDataset(f.toString());
+        assertEquals(4, ds.graph.vertexCount());
+        assertEquals(4, ds.graph.edgeCount());
+        assertEquals(2.0, ds.graph.weight(ds.graph.offset(0)), 0.0);
+        assertEquals(3.5, ds.graph.weight(ds.graph.offset(1)), 0.0);
+        assertEquals(-0.25, ds.graph.weight(ds.graph.offset(1) + 1), 0.0);
+        assertEquals(1.0, ds.graph.weight(ds.graph.offset(2)), 0.0);
+        Files.writeString(f, "0 1 2\n1 x 3\n");
+        IOException e = assertThrows(IOException.class, () -> GraphLoader.loadDataset(f.toString()));
+        assertEquals(f + ": expected a vertex id at byte 8", e.getMessage());
+    }
+    @Test
+    void edgeListChunksMatchSequentialParse(@TempDir Path dir) throws IOException {
+        CsrGraph g = new GraphGenerator(GraphGenerator.Shape.POWER_LAW, 5000, 40000, 4).toCsr();
+        SplittableRandom rnd = new SplittableRandom(9);
+        double[] w = new double[g.edgeCount()];
+        StringBuilder sb = new StringBuilder();
+        for (int u = 0; u < g.n; u++) {
+            for (int e = g.offset(u); e < g.offset(u + 1); e++) {
+                // decimals, long mantissas and exponents: fast path and Double.parseDouble fallback
+                switch (e % 4) {
+                    case 0: w[e] = g.weight(e); break;
+                    case 1: w[e] = rnd.nextInt(1_000_000) / 1000.0; break;
+                    case 2: w[e] = rnd.nextDouble(); break;
+                    default: w[e] = rnd.nextDouble() * 1e-30;
+                }
+                sb.append(u).append(e % 2 == 0 ? '\t' : ' ').append(g.target(e)).append(' ').append(w[e]).append('\n');
+            }
+        }
+        Path f = dir.resolve("g.edges");
+        Files.writeString(f, sb);
+        ForkJoinPool pool = new ForkJoinPool(4);     // > 1 thread: partitioned parallel merge
+        for (long chunk : new long[]{1 << 24, 4096, 7}) {
+            GraphLoader.Dataset ds = new EdgeListLoader(chunk == 7 ? ForkJoinPool.commonPool() : pool)
+                    .chunkBytes(chunk).vertexCount(g.n).load(f);
+            CsrGraph h = (CsrGraph) ds.graph;
+            assertEquals(g.edgeCount(), h.edgeCount());
+            for (int u = 0; u <= g.n; u++) assertEquals(g.offset(u), h.offset(u));
+            for (int e = 0; e < g.edgeCount(); e++) {
+                assertEquals(g.target(e), h.target(e));
+                assertEquals(w[e], h.weight(e), 0.0);
+            }
+        }
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,34 @@
+import util.Metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+/** JUnit tests for counter handles and nested timing phases. */
+public class Metrics_Tests {
+    @Test
+    void handlesAndNamesShareSlots() {
+        int id = Metrics.register("test_ops");
+        assertEquals(id, Metrics.register("test_ops"));
+        Metrics m = new Metrics();
+        m.inc(id);
+        m.add(id, 4);
+        m.inc("test_ops");
+        assertEquals(6, m.get("test_ops"));
+        assertEquals(0, m.get("never_registered"));
+    }
+    @Test
+    void nestedPhasesAccumulate() throws InterruptedException {
+        Metrics m = new Metrics();
+        m.begin("outer");
+        m.begin("inner");
+        Thread.sleep(2);
+        m.end();
+        m.end();
+        m.begin("outer");
+        m.end();
+        assertTrue(m.timeMs("outer/inner") > 0);
+        assertTrue(m.timeMs("outer") >= m.timeMs("outer/inner"));
+        assertEquals(m.timeMs("outer"), m.timeMs(), 1e-9);
+    }
+}
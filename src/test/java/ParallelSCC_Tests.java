@@ -0,0 +1,80 @@
+import graph.scc.ParallelSCC;
+import graph.scc.TarjanSCC;
+import util.CsrGraph;
+import util.GraphLoader;
+import util.GraphView;
+import util.Metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+/** JUnit tests comparing the parallel SCC engine with Tarjan. */
+public class ParallelSCC_Tests {
+    @Test
+    void matchesTarjanOnDatasets() throws Exception {
+        File[] files = new File("data").listFiles((d, n) -> n.endsWith(".json"));
+        assertNotNull(files);
+        for (File f : files) {
+            assertSamePartition(GraphLoader.loadDataset(f.getPath()).graph);
+        }
+    }
+    @Test
+    void matchesTarjanOnLargeRandomGraph() {
+        // Chain of 2000 cycles (sizes 1..50) plus random forward edges and a few back edges.
+        SplittableRandom rnd = new SplittableRandom(7);
+        int blocks = 2000, n = 0;
+        int[] start = new int[blocks + 1];
+        for (int b = 0; b < blocks; b++) { start[b] = n; n += 1 + rnd.nextInt(50); }
+        start[blocks] = n;
+        int cap = 4 * n, m = 0;
+        int[] from = new int[cap], to = new int[cap];
+        for (int b = 0; b < blocks; b++) {
+            int s = start[b], len = start[b + 1] - s;
+            for (int i = 0; i < len && len > 1; i++) { from[m] = s + i; to[m++] = s + (i + 1) % len; }
+        }
+        while (m < cap - 1) {
+            int u = rnd.nextInt(n), v = rnd.nextInt(n);
+            if (u > v) { int t = u; u = v; v = t; }
+            if (rnd.nextInt(500) == 0) { int t = u; u = v; v = t; }   // planted back edge
+            from[m] = u; to[m++] = v;
+        }
+        assertSamePartition(CsrGraph.fromEdges(n, true, m, from, to, new double[m]));
+    }
+    @Test
+    void longChainOfCyclesStopsSplitting() {
+        // 20000 2-cycles in a line: each FW-BW split would peel off one cycle.
+        int k = 20000, n = 2 * k, m = 0;
+        int[] from = new int[3 * k], to = new int[3 * k];
+        for (int i = 0; i < k; i++) {
+            from[m] = 2 * i; to[m++] = 2 * i + 1;
+            from[m] = 2 * i + 1; to[m++] = 2 * i;
+            if (i + 1 < k) { from[m] = 2 * i + 1; to[m++] = 2 * i + 2; }
+        }
+        CsrGraph g = CsrGraph.fromEdges(n, true, m, from, to, new double[m]);
+        Metrics metrics = new Metrics();
+        assertSamePartition(g, metrics);
+        assertTrue(metrics.get("pscc_tasks") <= 4, "tasks=" + metrics.get("pscc_tasks"));   // STALL_LIMIT
+    }
+    private static void assertSamePartition(GraphView g) {
+        assertSamePartition(g, new Metrics());
+    }
+    private static void assertSamePartition(GraphView g, Metrics m) {
+        TarjanSCC.Result a = new TarjanSCC().findSCCs(g, new Metrics());
+        TarjanSCC.Result b = new ParallelSCC().findSCCs(g, m);
+        assertEquals(a.compCount, b.compCount);
+        int[] map = new int[a.compCount];
+        Arrays.fill(map, -1);
+        for (int v = 0; v < g.vertexCount(); v++) {
+            int ca = a.compOf[v], cb = b.compOf[v];
+            if (map[ca] == -1) map[ca] = cb;
+            assertEquals(map[ca], cb);
+            assertEquals(a.componentSize(ca), b.componentSize(cb));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+import app.QueryServer;
+import util.Graph;
+import util.GraphLoader;
+import util.WeightedLruCache;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+/** JUnit tests for the HTTP query server and its size-bounded LRU cache. */
+public class QueryServer_Tests {
+    @Test
+    void answersQueries() throws Exception {
+        Graph g = new Graph(6, true);
+        g.addEdge(0, 1, 3);
+        g.addEdge(1, 2, 2);
+        g.addEdge(2, 0, 4);        // {0, 1, 2}
+        g.addEdge(2, 3, 1);
+        g.addEdge(3, 4, 7);
+        g.addEdge(0, 4, 10);
+        QueryServer qs = new QueryServer(new GraphLoader.Dataset(g.toCsr(), 0, "edge", true), 1 << 20);
+        int port = qs.start(0, 2);
+        try {
+            HttpClient http = HttpClient.newHttpClient();
+            String sp = get(http, port, "/shortest?from=1&to=4", 200);
+            assertTrue(sp.contains("\"reachable\":true") && sp.contains("\"dist\":8.000"), sp);
+            get(http, port, "/shortest?from=0&to=4", 200);
+            assertTrue(get(http, port, "/shortest?from=4&to=5", 200).contains("\"dist\":null"));
+            assertTrue(get(http, port, "/reach?from=2&to=0", 200).contains("\"reachable\":true"));
+            assertTrue(get(http, port, "/reach?from=4&to=0", 200).contains("\"reachable\":false"));
+            String cp = get(http, port, "/critical?vertex=3", 200);
+            assertTrue(cp.contains("\"length\":10.000") && cp.contains("\"slack\":2.000"), cp);
+            String stats = get(http, port, "/stats", 200);
+            assertTrue(stats.contains("\"cache_hits\":1") && stats.contains("\"scc_count\":4"), stats);
+            get(http, port, "/shortest?from=0", 400);
+            assertTrue(get(http, port, "/reach?%66rom=%32&to=0", 200).contains("\"reachable\":true"));
+            get(http, port, "/reach?from=0&to=99", 400);
+        } finally {
+            qs.stop();
+        }
+        qs.stop();                 // second stop is a no-op
+        new QueryServer(new GraphLoader.Dataset(g.toCsr(), 0, "edge", true), 1 << 20).stop();
+    }
+    @Test
+    void parallelComponentEdgesUseMinAndMax() throws Exception {
+        Graph g = new Graph(4, true);
+        g.addEdge(0, 1, 1);
+        g.addEdge(1, 0, 1);        // {0, 1}
+        g.addEdge(0, 2, 9);        // two edges {0, 1} -> {2}: 9 first, 4 cheapest
+        g.addEdge(1, 2, 4);
+        g.addEdge(2, 3, 2);
+        g.addEdge(2, 3, 6);        // two edges {2} -> {3}: 6 dearest
+        QueryServer qs = new QueryServer(new GraphLoader.Dataset(g.toCsr(), 0, "edge", true), 1 << 20);
+        int port = qs.start(0, 1);
+        try {
+            HttpClient http = HttpClient.newHttpClient();
+            String sp = get(http, port, "/shortest?from=0&to=3", 200);
+            assertTrue(sp.contains("\"dist\":6.000"), sp);
+            String cp = get(http, port, "/critical", 200);
+            assertTrue(cp.contains("\"length\":15.000"), cp);
+        } finally {
+            qs.stop();
+        }
+    }
+    @Test
+    void cacheEvictsLeastRecentlyUsedByWeight() {
+        WeightedLruCache<String, int[]> c = new WeightedLruCache<>(100, a -> a.length);
+        c.put("a", new int[40]);
+        c.put("b", new int[40]);
+        c.get("a");                       // b is now least recently used
+        c.put("c", new int[40]);
+        assertNull(c.get("b"));
+        assertEquals(80, c.weight());
+        assertEquals(1, c.evictions());
+        c.put("huge", new int[101]);      // over budget: not cached, nothing evicted
+        assertNull(c.get("huge"));
+        assertEquals(2, c.size());
+        assertEquals(40, c.computeIfAbsent("a", k -> new int[1]).length);
+    }
+    private static String get(HttpClient http, int port, String path, int status) throws Exception {
+        HttpResponse<String> res = http.send(
+                HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(status, res.statusCode(), res.body());
+        return res.body();
+    }
+}
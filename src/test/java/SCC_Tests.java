@@ -1,10 +1,21 @@
+import graph.scc.ParallelEdgePolicy;
 import graph.scc.TarjanSCC;
+import graph.topo.KahnTopoSort;
+import util.CsrGraph;
 import util.Graph;
+import util.GraphGenerator;
 import util.Metrics;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 /** JUnit tests for SCC detection (Tarjan). */
 public class SCC_Tests {
     @Test
@@ -31,7 +42,81 @@ public class SCC_Tests {
         TarjanSCC.Result r = tarjan.findSCCs(g, new Metrics());
 
         assertEquals(1, r.compCount);
-        assertEquals(1, r.components.get(0).size());
+        assertEquals(1, r.componentSize(0));
     }
-}
+    @Test
+    void longChainDoesNotOverflowStack() {
+        // 0 -> 1 -> ... -> n-1 -> 0 : one SCC reached through a 1M-deep DFS.
+        int n = 1_000_000;
+        Graph g = new Graph(n, true);
+        for (int i = 0; i < n; i++) g.addEdge(i, (i + 1) % n, 1);
+        TarjanSCC.Result r = new TarjanSCC().findSCCs(g, new Metrics());
 
+        assertEquals(1, r.compCount);
+        assertEquals(n, r.componentSize(0));
+    }
+    @Test
+    void condensationParallelEdgePolicies() {
+        // {0,1} cycle with two edges into {2}: 5 (first in input order) and 2 (from vertex 0).
+        Graph g = new Graph(3, true);
+        g.addEdge(0, 1, 1);
+        g.addEdge(1, 0, 1);
+        g.addEdge(1, 2, 5);
+        g.addEdge(0, 2, 2);
+        TarjanSCC tarjan = new TarjanSCC();
+        TarjanSCC.Result r = tarjan.findSCCs(g, new Metrics());
+        CsrGraph first = tarjan.buildCondensation(g, r);
+        CsrGraph min = tarjan.buildCondensation(g, r, ParallelEdgePolicy.MIN);
+        CsrGraph max = tarjan.buildCondensation(g, r, ParallelEdgePolicy.MAX);
+        int a = r.compOf[0];
+
+        assertEquals(1, first.edgeCount());
+        assertEquals(r.compOf[2], first.target(first.offset(a)));
+        assertEquals(2.0, first.weight(first.offset(a)), 1e-9);   // vertex 0's edge is scanned first
+        assertEquals(2.0, min.weight(min.offset(a)), 1e-9);
+        assertEquals(5.0, max.weight(max.offset(a)), 1e-9);
+    }
+    @Test
+    void fusedPipelineMatchesTwoStage() {
+        TarjanSCC tarjan = new TarjanSCC();
+        for (GraphGenerator.Shape shape : GraphGenerator.Shape.values()) {
+            CsrGraph g = new GraphGenerator(shape, 4000, 16000, 13).shuffle(true).toCsr();
+            TarjanSCC.Result r = tarjan.findSCCs(g, new Metrics());
+            for (ParallelEdgePolicy policy : ParallelEdgePolicy.values()) {
+                TarjanSCC.Pipeline p = tarjan.findSCCsWithOrder(g, true, policy, new Metrics());
+                assertArrayEquals(r.compOf, p.scc.compOf);
+                assertArrayEquals(r.members, p.scc.members);
+                CsrGraph staged = tarjan.buildCondensation(g, r, policy);
+                CsrGraph fused = p.condensation;
+                assertEquals(staged.edgeCount(), fused.edgeCount(), shape.id);
+                for (int c = 0; c < r.compCount; c++) {
+                    assertEquals(edgeSet(staged, c), edgeSet(fused, c), shape.id + " component " + c);
+                }
+                // rows are emitted by vertex id, so even the edge order matches
+                for (int e = 0; e < staged.edgeCount(); e++) assertEquals(staged.target(e), fused.target(e));
+                // both orders are valid on the staged condensation
+                List<Integer> kahn = new KahnTopoSort().topoOrder(staged, new Metrics()).order;
+                assertEquals(r.compCount, kahn.size());
+                assertValidOrder(staged, kahn.stream().mapToInt(Integer::intValue).toArray());
+                assertValidOrder(staged, p.topo);
+            }
+        }
+        TarjanSCC.Pipeline bare = tarjan.findSCCsWithOrder(new Graph(3, true), false, ParallelEdgePolicy.FIRST, new Metrics());
+        assertNull(bare.condensation);
+        assertArrayEquals(new int[]{2, 1, 0}, bare.topo);
+    }
+    private static Set<String> edgeSet(CsrGraph g, int c) {
+        Set<String> out = new HashSet<>();
+        for (int e = g.offset(c); e < g.offset(c + 1); e++) out.add(g.target(e) + ":" + g.weight(e));
+        return out;
+    }
+    private static void assertValidOrder(CsrGraph dag, int[] topo) {
+        int[] pos = new int[dag.n];
+        java.util.Arrays.fill(pos, -1);
+        for (int i = 0; i < topo.length; i++) pos[topo[i]] = i;
+        for (int c = 0; c < dag.n; c++) {
+            assertTrue(pos[c] >= 0);
+            for (int e = dag.offset(c); e < dag.offset(c + 1); e++) assertTrue(pos[c] < pos[dag.target(e)]);
+        }
+    }
+}
@@ -1,13 +1,19 @@
 import graph.topo.KahnTopoSort;
+import graph.topo.LevelTopoSort;
+import graph.topo.ReachabilityIndex;
+import util.CsrGraph;
 import util.Graph;
 import util.Metrics;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-/** JUnit tests for Kahn topological sort. */
+/** JUnit tests for Kahn topological sort, levels and the reachability index. */
 public class Topo_Tests {
     @Test
     void dagTopoOrder() {
@@ -37,5 +43,96 @@ public class Topo_Tests {
         assertFalse(r.isDAG);
         assertTrue(r.order.size() < 3);
     }
-}
+    @Test
+    void levelsOfDiamond() {
+        // 0 -> {1,2} -> 3 -> 4 : levels {0}, {1,2}, {3}, {4}
+        Graph dag = new Graph(5, true);
+        dag.addEdge(0, 1, 1);
+        dag.addEdge(0, 2, 1);
+        dag.addEdge(1, 3, 1);
+        dag.addEdge(2, 3, 1);
+        dag.addEdge(3, 4, 1);
+        LevelTopoSort.Result r = new LevelTopoSort().levels(dag, new Metrics());
+        assertTrue(r.isDAG);
+        assertEquals(4, r.levelCount);
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4}, r.order);
+        assertArrayEquals(new int[]{0, 1, 3, 4, 5}, r.levelStart);
+    }
+    @Test
+    void levelsOnWideRandomDagAndCycle() {
+        // 200k vertices, edges only from lower to higher ids: every edge must go to a later level.
+        SplittableRandom rnd = new SplittableRandom(11);
+        int n = 200_000, m = 1_000_000;
+        int[] from = new int[m], to = new int[m];
+        for (int i = 0; i < m; i++) {
+            int u = rnd.nextInt(n - 1);
+            from[i] = u;
+            to[i] = u + 1 + rnd.nextInt(Math.min(1000, n - u - 1));
+        }
+        CsrGraph dag = CsrGraph.fromEdges(n, true, m, from, to, new double[m]);
+        LevelTopoSort.Result r = new LevelTopoSort().levels(dag, new Metrics());
+        assertTrue(r.isDAG);
+        int[] level = new int[n];
+        for (int l = 0; l < r.levelCount; l++) {
+            for (int i = r.levelStart[l]; i < r.levelStart[l + 1]; i++) level[r.order[i]] = l;
+        }
+        for (int i = 0; i < m; i++) assertTrue(level[from[i]] < level[to[i]]);
 
+        Graph g = new Graph(3, true);
+        g.addEdge(0, 1, 1);
+        g.addEdge(1, 2, 1);
+        g.addEdge(2, 0, 1);
+        assertEquals(new KahnTopoSort().topoOrder(g, new Metrics()).isDAG,
+                new LevelTopoSort().levels(g, new Metrics()).isDAG);
+    }
+    @Test
+    void reachabilityIndexMatchesDfs() {
+        // random DAG over a shuffled id order, so ids say nothing about reachability
+        SplittableRandom rnd = new SplittableRandom(5);
+        int n = 6000, m = 15000;
+        int[] perm = new int[n];
+        for (int i = 0; i < n; i++) perm[i] = i;
+        for (int i = n - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1), t = perm[i];
+            perm[i] = perm[j];
+            perm[j] = t;
+        }
+        int[] from = new int[m], to = new int[m];
+        for (int i = 0; i < m; i++) {
+            int u = rnd.nextInt(n - 1);
+            from[i] = perm[u];
+            to[i] = perm[u + 1 + rnd.nextInt(Math.min(50, n - u - 1))];
+        }
+        CsrGraph dag = CsrGraph.fromEdges(n, true, m, from, to, new double[m]);
+        int[] topo = new LevelTopoSort().levels(dag, new Metrics()).order;
+        ReachabilityIndex.Index labels = new ReachabilityIndex().build(dag, topo, new Metrics());
+        ReachabilityIndex.Index closure = new ReachabilityIndex().bitsetLimit(1 << 13).build(dag, topo, new Metrics());
+        assertFalse(labels.usesClosure());
+        assertTrue(closure.usesClosure());
+        assertTrue(labels.memoryBytes() < closure.memoryBytes());
+        int definite = 0;
+        for (int q = 0; q < 300; q++) {
+            int a = rnd.nextInt(n);
+            boolean[] seen = new boolean[n];
+            int[] stack = new int[n];
+            int top = 0;
+            stack[top++] = a;
+            seen[a] = true;
+            while (top > 0) {
+                int u = stack[--top];
+                for (int e = dag.offset(u); e < dag.offset(u + 1); e++) {
+                    if (!seen[dag.target(e)]) {
+                        seen[dag.target(e)] = true;
+                        stack[top++] = dag.target(e);
+                    }
+                }
+            }
+            for (int b = 0; b < n; b += 7) {
+                assertEquals(seen[b], labels.reaches(a, b), a + " -> " + b);
+                assertEquals(seen[b], closure.reaches(a, b), a + " -> " + b);
+                if (labels.isDefinite(a, b)) definite++;
+            }
+        }
+        assertTrue(definite > 0.9 * 300 * ((n + 6) / 7), "definite=" + definite);   // O(1) answers
+    }
+}
@@ -0,0 +1,260 @@
+package app;
+
+import graph.scc.TarjanSCC;
+import util.CsrGraph;
+import util.Graph;
+import util.Metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+/** JUnit tests for the CSV, JSON Lines and binary results sinks (package app: the sinks are package-private). */
+public class ResultsSink_Tests {
+    @Test
+    void csvMatchesOldLayout(@TempDir Path dir) throws IOException {
+        Analysis a = sample();
+        write("csv", dir, a);
+
+        StringWriter expected = new StringWriter();
+        try (PrintWriter pw = new PrintWriter(expected)) {
+            pw.println(String.join(",", CsvResultsSink.COLUMNS));
+            pw.println(String.join(",", "\"a,b.json\"", "edge", "5", "6", "3", fmt(a.sccMs), "5", "6",
+                    "3", "2", fmt(a.topoMs), "3", "2", fmt(a.spMs), "2", fmt(a.lpMs), "2",
+                    fmt(a.criticalLen), "0", String.valueOf(a.sourceComp), "NA", "NA",
+                    join(a.criticalPath)));
+        }
+        assertEquals(expected.toString(), Files.readString(dir.resolve("results.csv")));
+
+        expected = new StringWriter();
+        try (PrintWriter pw = new PrintWriter(expected)) {
+            pw.println("dataset: a,b.json");
+            pw.println("weight_model: edge");
+            pw.println("source_vertex: 0");
+            pw.println("source_comp: " + a.sourceComp);
+            pw.println();
+            pw.println("SCC components (index: size | nodes):");
+            for (int c = 0; c < a.r.compCount; c++) {
+                pw.println("  " + c + ": " + a.r.componentSize(c) + " | " + Arrays.toString(a.r.component(c)));
+            }
+            pw.println();
+            pw.println("Condensation DAG: V_dag=" + a.dag.n + ", E_dag=" + a.dag.edgeCount());
+            pw.println("dag_edges (u -> v, w):");
+            for (int u = 0; u < a.dag.n; u++) {
+                for (int e = a.dag.offset(u); e < a.dag.offset(u + 1); e++) {
+                    pw.println("  " + u + " -> " + a.dag.target(e) + " , w=" + fmt(a.dag.weight(e)));
+                }
+            }
+            pw.println();
+            pw.println("topo_order_components:");
+            pw.println("  " + a.compTopo);
+            pw.println("derived_order_vertices:");
+            pw.println("  " + derived(a));
+            pw.println();
+            pw.println("dist_from_source (by component index):");
+            List<String> dist = new ArrayList<>();
+            for (double x : a.spDist) dist.add(fmt(x));
+            pw.println("  " + dist);
+        }
+        assertEquals(expected.toString(), Files.readString(dir.resolve("details").resolve("a,b_details.txt")));
+    }
+    @Test
+    void jsonLinesReadBack(@TempDir Path dir) throws IOException {
+        Analysis a = sample();
+        write("jsonl", dir, a);
+        ObjectMapper json = new ObjectMapper();
+
+        List<String> rows = Files.readAllLines(dir.resolve("results.jsonl"));
+        assertEquals(1, rows.size());
+        JsonNode row = json.readTree(rows.get(0));
+        assertEquals(CsvResultsSink.COLUMNS.length, row.size());
+        assertEquals("a,b.json", row.get("dataset").asText());
+        assertEquals("edge", row.get("weight_model").asText());
+        assertEquals(5, row.get("n").asInt());
+        assertEquals(6, row.get("m").asInt());
+        assertEquals(3, row.get("SCC_count").asInt());
+        assertEquals(rounded(a.sccMs), row.get("SCC_ms").asDouble());
+        assertEquals(6, row.get("scc_dfs_edges").asLong());
+        assertEquals(rounded(a.criticalLen), row.get("CriticalLen").asDouble());
+        assertEquals(a.sourceComp.intValue(), row.get("source_comp").asInt());
+        assertTrue(row.get("sp_example_target_comp").isNull());
+        assertTrue(row.get("sp_example_path_components").isNull());
+        assertEquals(a.criticalPath, ints(row.get("critical_path_components")));
+
+        List<JsonNode> lines = new ArrayList<>();
+        for (String s : Files.readAllLines(dir.resolve("details").resolve("a,b_details.jsonl"))) lines.add(json.readTree(s));
+        assertEquals(1 + a.r.compCount + a.dag.edgeCount() + 3, lines.size());
+        JsonNode head = lines.get(0);
+        assertEquals("a,b.json", head.get("dataset").asText());
+        assertEquals(0, head.get("source_vertex").asInt());
+        assertEquals(a.r.compCount, head.get("scc_count").asInt());
+        assertEquals(a.dag.n, head.get("V_dag").asInt());
+        assertEquals(a.dag.edgeCount(), head.get("E_dag").asInt());
+        int k = 1;
+        for (int c = 0; c < a.r.compCount; c++, k++) {
+            assertEquals(c, lines.get(k).get("comp").asInt());
+            assertArrayEquals(a.r.component(c), ints(lines.get(k).get("nodes")).stream().mapToInt(Integer::intValue).toArray());
+        }
+        for (int u = 0; u < a.dag.n; u++) {
+            for (int e = a.dag.offset(u); e < a.dag.offset(u + 1); e++, k++) {
+                assertEquals(u, lines.get(k).get("u").asInt());
+                assertEquals(a.dag.target(e), lines.get(k).get("v").asInt());
+                assertEquals(rounded(a.dag.weight(e)), lines.get(k).get("w").asDouble());
+            }
+        }
+        assertEquals(a.compTopo, ints(lines.get(k++).get("topo_order_components")));
+        assertEquals(derived(a), ints(lines.get(k++).get("derived_order_vertices")));
+        JsonNode dist = lines.get(k).get("dist_from_source");
+        assertEquals(a.spDist.length, dist.size());
+        for (int i = 0; i < a.spDist.length; i++) {
+            if (Double.isFinite(a.spDist[i])) assertEquals(rounded(a.spDist[i]), dist.get(i).asDouble());
+            else assertTrue(dist.get(i).isNull());
+        }
+    }
+    @Test
+    void binaryReadBack(@TempDir Path dir) throws IOException {
+        Analysis a = sample();
+        write("binary", dir, a);
+
+        ByteBuffer b = read(dir.resolve("results.bin"));
+        assertEquals(BinaryResultsSink.RESULTS_MAGIC, b.getInt());
+        assertEquals(BinaryResultsSink.VERSION, b.getInt());
+        assertEquals("a,b.json", str(b));
+        assertEquals("edge", str(b));
+        assertEquals(5, b.getInt());
+        assertEquals(6, b.getInt());
+        assertEquals(3, b.getInt());
+        assertEquals(a.sccMs, b.getDouble());
+        assertEquals(5L, b.getLong());
+        assertEquals(6L, b.getLong());
+        assertEquals(3, b.getInt());
+        assertEquals(2, b.getInt());
+        assertEquals(a.topoMs, b.getDouble());
+        assertEquals(3L, b.getLong());
+        assertEquals(2L, b.getLong());
+        assertEquals(a.spMs, b.getDouble());
+        assertEquals(2L, b.getLong());
+        assertEquals(a.lpMs, b.getDouble());
+        assertEquals(2L, b.getLong());
+        assertEquals(a.criticalLen, b.getDouble());
+        assertEquals(0, b.getInt());
+        assertEquals(a.sourceComp.intValue(), b.getInt());
+        assertEquals(-1, b.getInt());
+        assertEquals(-1, b.getInt());
+        int len = b.getInt();
+        List<Integer> crit = new ArrayList<>();
+        for (int i = 0; i < len; i++) crit.add(b.getInt());
+        assertEquals(a.criticalPath, crit);
+        assertEquals(0, b.remaining());
+
+        b = read(dir.resolve("details").resolve("a,b_details.bin"));
+        assertEquals(BinaryResultsSink.DETAILS_MAGIC, b.getInt());
+        assertEquals(BinaryResultsSink.VERSION, b.getInt());
+        assertEquals("a,b.json", str(b));
+        assertEquals("edge", str(b));
+        assertEquals(0, b.getInt());
+        assertEquals(a.sourceComp.intValue(), b.getInt());
+        assertEquals(a.r.compCount, b.getInt());
+        for (int x : a.r.compStart) assertEquals(x, b.getInt());
+        for (int x : a.r.members) assertEquals(x, b.getInt());
+        assertEquals(a.dag.n, b.getInt());
+        assertEquals(a.dag.edgeCount(), b.getInt());
+        for (int v = 0; v <= a.dag.n; v++) assertEquals(a.dag.offset(v), b.getInt());
+        for (int e = 0; e < a.dag.edgeCount(); e++) assertEquals(a.dag.target(e), b.getInt());
+        for (int e = 0; e < a.dag.edgeCount(); e++) assertEquals(a.dag.weight(e), b.getDouble());
+        for (int c : a.compTopo) assertEquals(c, b.getInt());
+        assertEquals(1, b.get());
+        for (double x : a.spDist) assertEquals(x, b.getDouble());
+        assertEquals(0, b.remaining());
+    }
+
+    // {0, 1, 2} -> {3} -> {4}, with a tie-rounding weight and an unreachable component
+    private static Analysis sample() {
+        Graph g = new Graph(5, true);
+        g.addEdge(0, 1, 1.5);
+        g.addEdge(1, 2, 2);
+        g.addEdge(2, 0, 3);
+        g.addEdge(2, 3, 0.1 + 0.2);
+        g.addEdge(3, 4, 1.0005);
+        g.addEdge(0, 4, 10);
+        TarjanSCC tarjan = new TarjanSCC();
+        TarjanSCC.Result r = tarjan.findSCCs(g, new Metrics());
+        CsrGraph dag = tarjan.buildCondensation(g, r);
+        List<Integer> topo = new ArrayList<>();
+        for (int c = r.compCount - 1; c >= 0; c--) topo.add(c);
+        int src = r.compOf[0];
+        double[] dist = new double[dag.n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        dist[src] = 0;
+        dist[r.compOf[3]] = 0.1 + 0.2;
+        dist[r.compOf[4]] = 0.1 + 0.2 + 1.0005;
+        List<Integer> crit = List.of(src, r.compOf[3], r.compOf[4]);
+        return new Analysis("a,b.json", null, 5, 6, 3, 1.2345, 5, 6, 3, 2,
+                0.0005, 3, 2, 2.0005, 2, 1e-9, 2, 10.0005,
+                0, src, null, null, crit, r, dag, topo, dist);
+    }
+
+    private static void write(String format, Path dir, Analysis a) throws IOException {
+        File details = dir.resolve("details").toFile();
+        assertTrue(details.mkdir());
+        try (ResultsSink sink = ResultsSink.open(format, dir.toFile(), details)) {
+            sink.row(a);
+            sink.details(a);
+        }
+    }
+
+    private static String fmt(double x) {
+        return Double.isFinite(x) ? String.format(Locale.US, "%.3f", x) : "INF";
+    }
+
+    // the value a %.3f JSON number parses back to
+    private static double rounded(double x) {
+        return Double.parseDouble(fmt(x));
+    }
+
+    private static String join(List<Integer> path) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < path.size(); i++) sb.append(i > 0 ? "->" : "").append(path.get(i));
+        return sb.toString();
+    }
+
+    private static List<Integer> derived(Analysis a) {
+        List<Integer> out = new ArrayList<>();
+        for (int c : a.compTopo) for (int v : a.r.component(c)) out.add(v);
+        return out;
+    }
+
+    private static List<Integer> ints(JsonNode arr) {
+        List<Integer> out = new ArrayList<>();
+        for (JsonNode x : arr) out.add(x.asInt());
+        return out;
+    }
+
+    private static ByteBuffer read(Path p) throws IOException {
+        return ByteBuffer.wrap(Files.readAllBytes(p)).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static String str(ByteBuffer b) {
+        byte[] s = new byte[b.getInt()];
+        b.get(s);
+        return new String(s, StandardCharsets.UTF_8);
+    }
+}